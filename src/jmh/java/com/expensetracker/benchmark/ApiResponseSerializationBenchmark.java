@@ -0,0 +1,82 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.service.ExpenseMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a list page in the API envelope, the last step of
+ * every list and dashboard request on the object path.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="ApiResponseSerialization -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Travel", "Bills", "Shopping", "Health"};
+
+    @Param({"10", "100", "1000"})
+    private int rows;
+
+    private ObjectMapper mapper;
+    private ApiResponse<List<ExpenseResponse>> page;
+
+    @Setup
+    public void setUp() {
+        // Spring Boot's defaults for the application mapper
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        String owner = new ObjectId().toHexString();
+        List<Expense> expenses = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime date = now.minusDays(i % 90);
+            expenses.add(Expense.builder()
+                    .id(new ObjectId().toHexString())
+                    .name("Expense " + i)
+                    .amountMinor(500 + i * 37L % 50_000)
+                    .expenseDate(date)
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .paymentType(i % 2 == 0 ? "Card" : "Cash")
+                    .comment(i % 3 == 0 ? "" : "Note for expense " + i)
+                    .owner(owner)
+                    .createdAt(date)
+                    .updatedAt(date)
+                    .build());
+        }
+        page = ApiResponse.success(new ExpenseMapper().toResponses(expenses), "Expenses fetched successfully");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,159 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.codec.ExpenseCodec;
+import com.expensetracker.codec.ExpenseResponseCodec;
+import com.expensetracker.codec.UserCodec;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.service.ExpenseMapper;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring Data's mapping converter against the hand-written codecs, from raw
+ * BSON bytes to the object the list endpoint returns, and back.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="EntityCodec -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityCodecBenchmark {
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final ExpenseCodec expenseCodec = new ExpenseCodec();
+    private final ExpenseResponseCodec responseCodec = new ExpenseResponseCodec();
+    private final UserCodec userCodec = new UserCodec();
+    private final ExpenseMapper mapper = new ExpenseMapper();
+
+    private MappingMongoConverter converter;
+    private Expense expense;
+    private User user;
+    private byte[] expenseBytes;
+    private byte[] userBytes;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        LocalDateTime now = LocalDateTime.now();
+        expense = Expense.builder()
+                .id(new ObjectId().toHexString())
+                .name("Groceries")
+                .amountMinor(4275)
+                .expenseDate(now.minusDays(3))
+                .category("Food")
+                .paymentType("Card")
+                .comment("Weekly shop")
+                .owner(new ObjectId().toHexString())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        user = User.builder()
+                .id(new ObjectId().toHexString())
+                .username("jdoe")
+                .email("jdoe@example.com")
+                .name("J Doe")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .expenseLogged(120)
+                .categories(Arrays.asList("Food", "Travel", "Bills", "Shopping"))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        // Both paths read the bytes the converter writes today
+        expenseBytes = toBytes(springWrite(expense));
+        userBytes = toBytes(springWrite(user));
+    }
+
+    @Benchmark
+    public ExpenseResponse decodeResponseViaConverter() {
+        Document document = documentCodec.decode(reader(expenseBytes), DecoderContext.builder().build());
+        return mapper.toResponse(converter.read(Expense.class, document));
+    }
+
+    @Benchmark
+    public ExpenseResponse decodeResponseViaExpenseCodec() {
+        return mapper.toResponse(expenseCodec.decode(reader(expenseBytes), DecoderContext.builder().build()));
+    }
+
+    @Benchmark
+    public ExpenseResponse decodeResponseDirect() {
+        return responseCodec.decode(reader(expenseBytes), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public User decodeUserViaConverter() {
+        Document document = documentCodec.decode(reader(userBytes), DecoderContext.builder().build());
+        return converter.read(User.class, document);
+    }
+
+    @Benchmark
+    public User decodeUserViaCodec() {
+        return userCodec.decode(reader(userBytes), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public int encodeExpenseViaConverter() {
+        return toBytes(springWrite(expense)).length;
+    }
+
+    @Benchmark
+    public int encodeExpenseViaCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        expenseCodec.encode(new BsonBinaryWriter(buffer), expense, EncoderContext.builder().build());
+        return buffer.getPosition();
+    }
+
+    private Document springWrite(Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    private byte[] toBytes(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static BsonBinaryReader reader(byte[] bytes) {
+        return new BsonBinaryReader(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,100 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+import com.expensetracker.service.ExpenseMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Expense-to-response mapping for a page of rows spread over a month, before
+ * (builder per row, date formatted per row, stream collect) and after
+ * ({@link ExpenseMapper}). Scores and gc.alloc.rate.norm are per row.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="ExpenseMapping -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    // The per-row formatter the service used before ExpenseDateFormat
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
+
+    private final ExpenseMapper mapper = new ExpenseMapper();
+    private List<Expense> expenses;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = new ObjectId().toHexString();
+        expenses = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime date = now.minusDays(i % 30).minusMinutes(i);
+            expenses.add(Expense.builder()
+                    .id(new ObjectId().toHexString())
+                    .name("Expense " + i)
+                    .amountMinor(500 + i * 10L)
+                    .expenseDate(date)
+                    .category("Food")
+                    .paymentType("Card")
+                    .comment("Note")
+                    .owner(owner)
+                    .createdAt(date)
+                    .updatedAt(date)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<ExpenseResponse> builderAndFormatPerRow() {
+        return expenses.stream()
+                .map(ExpenseMappingBenchmark::builderMapping)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<ExpenseResponse> mapper() {
+        return mapper.toResponses(expenses);
+    }
+
+    private static ExpenseResponse builderMapping(Expense expense) {
+        return ExpenseResponse.builder()
+                ._id(expense.getId())
+                .name(expense.getName())
+                .amount(Money.ofMinor(expense.getAmountMinor()))
+                .expense_date(expense.getExpenseDate().format(DATE_FORMATTER))
+                .expense_category(expense.getCategory())
+                .payment(expense.getPaymentType())
+                .comment(expense.getComment())
+                .owner(expense.getOwner())
+                .createdAt(expense.getCreatedAt())
+                .updatedAt(expense.getUpdatedAt())
+                .build();
+    }
+}
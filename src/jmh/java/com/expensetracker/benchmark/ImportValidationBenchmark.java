@@ -0,0 +1,65 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+import com.expensetracker.service.ExpenseMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The validate-and-build loop an import runs before its insert, per row.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="ImportValidation -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportValidationBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private final ExpenseMapper mapper = new ExpenseMapper();
+    private final String owner = new ObjectId().toHexString();
+    private List<ExpenseRequest> requests;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(ExpenseRequest.builder()
+                    .name("  Imported expense " + i + " ")
+                    .amount(Money.ofMinor(199 + i))
+                    .expenseDate(i % 10 == 0 ? null : now.minusDays(i % 365))
+                    .category(" Food ")
+                    .paymentType("Card")
+                    .comment(i % 4 == 0 ? null : " from CSV ")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Expense> validateAndBuild() {
+        return mapper.toImportedExpenses(owner, requests);
+    }
+}
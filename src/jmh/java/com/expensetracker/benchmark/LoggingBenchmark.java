@@ -0,0 +1,129 @@
+package com.expensetracker.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.expensetracker.logging.SamplingTurboFilter;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The logging cost a request thread pays for one authenticated list request:
+ * the security filter chain's DEBUG lines and the service's INFO line.
+ *
+ * sync-pattern-debug is the old setup: DEBUG levels and a pattern encoder
+ * writing on the request thread. async-json is the logback-spring.xml
+ * pipeline at INFO, where the request thread only publishes to the ring
+ * buffer; async-json-sampled adds its sampling filter. Output goes to a null
+ * stream, so the scores are CPU and allocation, not console I/O. Events the
+ * writer thread cannot keep up with are dropped, as they would be in
+ * production.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="Logging -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String USER_ID = "65a1f0c2e4b0a1b2c3d4e5f6";
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync-pattern-debug", "async-json", "async-json-sampled"})
+    private String pipeline;
+
+    private LoggerContext context;
+    private Logger securityLogger;
+    private Logger serviceLogger;
+
+    @Setup
+    public void setUp() {
+        context = new LoggerContext();
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        switch (pipeline) {
+            case "sync-pattern-debug":
+                PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+                patternEncoder.setContext(context);
+                patternEncoder.setPattern(PATTERN);
+                patternEncoder.start();
+                sink.setEncoder(patternEncoder);
+                sink.start();
+                root.addAppender(sink);
+                context.getLogger("com.expensetracker").setLevel(Level.DEBUG);
+                context.getLogger("org.springframework.security").setLevel(Level.DEBUG);
+                break;
+            case "async-json-sampled":
+                SamplingTurboFilter.Rule rule = new SamplingTurboFilter.Rule();
+                rule.setLogger("com.expensetracker.service.ExpenseService");
+                rule.setLevel("INFO");
+                rule.setSampleRate(0.01);
+                rule.setMaxPerSecond(50);
+                SamplingTurboFilter sampling = new SamplingTurboFilter();
+                sampling.setContext(context);
+                sampling.addRule(rule);
+                sampling.start();
+                context.addTurboFilter(sampling);
+                // fall through
+            case "async-json":
+                LogstashEncoder jsonEncoder = new LogstashEncoder();
+                jsonEncoder.setContext(context);
+                jsonEncoder.start();
+                sink.setEncoder(jsonEncoder);
+                sink.start();
+                LoggingEventAsyncDisruptorAppender async = new LoggingEventAsyncDisruptorAppender();
+                async.setContext(context);
+                async.setRingBufferSize(8192);
+                async.addAppender(sink);
+                async.start();
+                root.addAppender(async);
+                root.setLevel(Level.INFO);
+                break;
+            default:
+                throw new IllegalArgumentException(pipeline);
+        }
+
+        securityLogger = context.getLogger("org.springframework.security.web.FilterChainProxy");
+        serviceLogger = context.getLogger("com.expensetracker.service.ExpenseService");
+        MDC.put("userId", USER_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MDC.clear();
+        context.stop();
+    }
+
+    @Benchmark
+    public void listRequest() {
+        securityLogger.debug("Securing {} {}", "GET", "/api/v1/expenses");
+        securityLogger.debug("Set SecurityContextHolder to {}", "UsernamePasswordAuthenticationToken [Principal=" + USER_ID + "]");
+        securityLogger.debug("Secured {} {}", "GET", "/api/v1/expenses");
+        serviceLogger.info("Getting all expenses for user: {}", USER_ID);
+    }
+}
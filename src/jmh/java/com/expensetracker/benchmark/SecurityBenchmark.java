@@ -0,0 +1,105 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.User;
+import com.expensetracker.security.JwtAuthenticationFilter;
+import com.expensetracker.security.JwtService;
+import jakarta.servlet.http.Cookie;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request authentication work: issuing and verifying JWTs, and
+ * finding the token in the Authorization header or among the cookies a
+ * browser sends.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="Security -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String accessToken;
+    private MockHttpServletRequest headerRequest;
+    private MockHttpServletRequest cookieRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+
+        user = User.builder()
+                .id(new ObjectId().toHexString())
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .name("Benchmark User")
+                .build();
+        accessToken = jwtService.generateAccessToken(user);
+
+        headerRequest = new MockHttpServletRequest();
+        headerRequest.addHeader("Authorization", "Bearer " + accessToken);
+
+        // A typical browser request: analytics and preference cookies ahead of the token
+        cookieRequest = new MockHttpServletRequest();
+        cookieRequest.setCookies(
+                new Cookie("_ga", "GA1.1.123456789.1700000000"),
+                new Cookie("theme", "dark"),
+                new Cookie("refreshToken", jwtService.generateRefreshToken(user)),
+                new Cookie("accessToken", accessToken));
+
+        anonymousRequest = new MockHttpServletRequest();
+        anonymousRequest.setCookies(new Cookie("theme", "dark"));
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.isTokenValid(accessToken);
+    }
+
+    @Benchmark
+    public String extractUserId() {
+        return jwtService.extractUserId(accessToken);
+    }
+
+    @Benchmark
+    public String extractTokenFromHeader() {
+        return JwtAuthenticationFilter.extractToken(headerRequest);
+    }
+
+    @Benchmark
+    public String extractTokenFromCookie() {
+        return JwtAuthenticationFilter.extractToken(cookieRequest);
+    }
+
+    @Benchmark
+    public String extractTokenMissing() {
+        return JwtAuthenticationFilter.extractToken(anonymousRequest);
+    }
+}
@@ -0,0 +1,112 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.config.WireFormatConfig;
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.dto.ExpenseDateFormat;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.bson.types.ObjectId;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization time and payload size of a 1,000-row expense page in each
+ * negotiated format. Payload sizes are printed once per trial.
+ *
+ * Run with: mvn -Pbenchmarks,skip-frontend test-compile exec:exec -Djmh.args="WireFormat -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final String[] CATEGORIES = {"Food", "Travel", "Bills", "Shopping", "Health", "Entertainment"};
+    private static final String[] PAYMENTS = {"Cash", "Card", "UPI"};
+
+    @Param({"json", "cbor", "smile", "msgpack"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private ApiResponse<List<ExpenseResponse>> page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Spring Boot's defaults for the application mapper
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        mapper = "json".equals(format) ? json : WireFormatConfig.mapperFor(json, factory(format));
+
+        LocalDateTime now = LocalDateTime.now();
+        String owner = new ObjectId().toHexString();
+        List<ExpenseResponse> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime date = now.minusDays(i % 90);
+            rows.add(ExpenseResponse.builder()
+                    ._id(new ObjectId().toHexString())
+                    .name("Expense " + i)
+                    .amount(Money.ofMinor(500 + i * 37 % 50000))
+                    .expense_date(ExpenseDateFormat.format(date))
+                    .expense_category(CATEGORIES[i % CATEGORIES.length])
+                    .payment(PAYMENTS[i % PAYMENTS.length])
+                    .comment(i % 3 == 0 ? null : "Note for expense " + i)
+                    .owner(owner)
+                    .createdAt(date)
+                    .updatedAt(date)
+                    .build());
+        }
+        page = ApiResponse.success(rows, "Expenses fetched successfully");
+        payload = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s payload: %d bytes for %d rows%n", format, payload.length, ROWS);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public ApiResponse<List<ExpenseResponse>> deserialize() throws Exception {
+        return mapper.readValue(payload, new TypeReference<ApiResponse<List<ExpenseResponse>>>() { });
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            case "msgpack":
+                return new MessagePackFactory();
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
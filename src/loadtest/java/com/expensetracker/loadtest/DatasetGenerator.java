@@ -0,0 +1,213 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic users and expenses shaped like real ones.
+ *
+ * Expense counts per user follow a Pareto distribution (alpha 1.16, the
+ * 80/20 shape), so a few heavy users own most of the rows, as in
+ * production. Each user favours a few categories over the rest, amounts are
+ * log-normal around a per-category median, card payments dominate, dates fall
+ * between the user's sign-up and now with more on weekends and around the
+ * afternoon, and most comments are empty while the rest vary in length.
+ *
+ * Every user is generated from its own seed derived from the dataset seed and
+ * its index, so a dataset is identical however it is split across threads.
+ * ObjectIds come from the same random source, with the creation time as their
+ * timestamp, so for a given seed and "now" two runs produce the same ids too.
+ */
+public final class DatasetGenerator {
+
+    private static final double PARETO_ALPHA = 1.16;
+
+    private static final String[] CATEGORIES = {
+            "Food", "Groceries", "Transport", "Bills", "Shopping", "Entertainment", "Health", "Travel", "Education", "Other"};
+    /** Median amount per category in minor units, in the order of CATEGORIES */
+    private static final long[] MEDIAN_MINOR = {
+            25_000, 120_000, 8_000, 200_000, 150_000, 60_000, 90_000, 500_000, 300_000, 40_000};
+    private static final String[] PAYMENT_TYPES = {"Card", "UPI", "Cash", "Net Banking"};
+    private static final double[] PAYMENT_WEIGHTS = {0.45, 0.35, 0.15, 0.05};
+    private static final String[] WORDS = {
+            "lunch", "with", "team", "monthly", "weekly", "refill", "taxi", "to", "office", "airport", "groceries",
+            "for", "the", "week", "birthday", "gift", "subscription", "renewal", "dinner", "friends", "pharmacy",
+            "doctor", "visit", "fuel", "electricity", "bill", "internet", "books", "course", "fees", "coffee",
+            "snacks", "movie", "tickets", "hotel", "booking", "train", "shoes", "repair", "rent", "split"};
+
+    private final long seed;
+    private final double minExpenses;
+    private final int maxExpenses;
+    private final int historyDays;
+    private final LocalDateTime now;
+
+    /**
+     * @param meanExpenses target mean expenses per user, before capping at maxExpenses
+     * @param historyDays  how far back sign-ups and expenses go
+     */
+    public DatasetGenerator(long seed, int meanExpenses, int maxExpenses, int historyDays, LocalDateTime now) {
+        this.seed = seed;
+        this.minExpenses = meanExpenses * (PARETO_ALPHA - 1) / PARETO_ALPHA;
+        this.maxExpenses = maxExpenses;
+        this.historyDays = historyDays;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /** One user and their expenses */
+    public record GeneratedUser(User user, List<Expense> expenses) {
+    }
+
+    public GeneratedUser generate(int index, String passwordHash) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+
+        LocalDateTime signUp = now.minusMinutes(random.nextLong((long) historyDays * 24 * 60));
+        int[] preference = categoryPreference(random);
+        int count = (int) Math.min(maxExpenses, Math.floor(minExpenses / Math.pow(1 - random.nextDouble(), 1 / PARETO_ALPHA)));
+
+        String userId = objectId(random, signUp);
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(expense(random, userId, signUp, preference));
+        }
+
+        List<String> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            categories.add(CATEGORIES[preference[i]]);
+        }
+        String username = "loadtest-" + index;
+        User user = User.builder()
+                .id(userId)
+                .username(username)
+                .email(username + "@loadtest.invalid")
+                .name("Load Test " + index)
+                .password(passwordHash)
+                .userFirstSignUp(signUp)
+                .lastLoginDate(now.minusMinutes(random.nextLong(30L * 24 * 60)))
+                .expenseLogged(count)
+                .categories(categories)
+                .createdAt(signUp)
+                .updatedAt(signUp)
+                .build();
+        return new GeneratedUser(user, expenses);
+    }
+
+    /** Category indexes in this user's order of preference: the default order with a few swaps */
+    private static int[] categoryPreference(SplittableRandom random) {
+        int[] order = new int[CATEGORIES.length];
+        Arrays.setAll(order, i -> i);
+        for (int swaps = 0; swaps < 3; swaps++) {
+            int a = random.nextInt(order.length);
+            int b = random.nextInt(order.length);
+            int tmp = order[a];
+            order[a] = order[b];
+            order[b] = tmp;
+        }
+        return order;
+    }
+
+    private Expense expense(SplittableRandom random, String owner, LocalDateTime signUp, int[] preference) {
+        // Zipf over the user's preference order: the favourite gets about a third of expenses
+        int category = preference[zipf(random, preference.length)];
+        long amountMinor = Math.max(100, Math.round(MEDIAN_MINOR[category] * Math.exp(gaussian(random) * 0.8)));
+        LocalDateTime date = expenseDate(random, signUp);
+        String name = CATEGORIES[category] + " " + (1 + random.nextInt(999));
+        String paymentType = PAYMENT_TYPES[weighted(random, PAYMENT_WEIGHTS)];
+        String comment = comment(random);
+        return Expense.builder()
+                .id(objectId(random, date))
+                .name(name)
+                .amountMinor(amountMinor)
+                .expenseDate(date)
+                .category(CATEGORIES[category])
+                .paymentType(paymentType)
+                .comment(comment)
+                .owner(owner)
+                .createdAt(date)
+                .updatedAt(date)
+                .build();
+    }
+
+    private LocalDateTime expenseDate(SplittableRandom random, LocalDateTime signUp) {
+        long days = Math.max(1, ChronoUnit.DAYS.between(signUp.toLocalDate(), now.toLocalDate()));
+        LocalDate day;
+        do {
+            day = signUp.toLocalDate().plusDays(random.nextLong(days + 1));
+            // Weekends are about 40% busier than weekdays
+        } while (!isWeekend(day) && random.nextDouble() > 1 / 1.4);
+
+        int minuteOfDay = (int) Math.max(6 * 60, Math.min(23 * 60 + 59, 14 * 60 + gaussian(random) * 240));
+        LocalDateTime date = day.atStartOfDay().plusMinutes(minuteOfDay).plusSeconds(random.nextInt(60));
+        return date.isAfter(now) ? now.minusMinutes(random.nextInt(60 * 12)) : date;
+    }
+
+    /** Four bytes of creation time, as in any ObjectId, then eight random ones in place of machine and counter */
+    private static String objectId(SplittableRandom random, LocalDateTime createdAt) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt((int) createdAt.toEpochSecond(ZoneOffset.UTC));
+        bytes.putLong(random.nextLong());
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static String comment(SplittableRandom random) {
+        if (random.nextDouble() < 0.65) {
+            return "";
+        }
+        // Geometric word count, mean around six, capped at sixty
+        int words = Math.min(60, 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(5.0 / 6)));
+        StringBuilder comment = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                comment.append(' ');
+            }
+            comment.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return comment.toString();
+    }
+
+    private static int zipf(SplittableRandom random, int n) {
+        double norm = 0;
+        for (int i = 1; i <= n; i++) {
+            norm += 1.0 / i;
+        }
+        double point = random.nextDouble() * norm;
+        for (int i = 1; i <= n; i++) {
+            point -= 1.0 / i;
+            if (point <= 0) {
+                return i - 1;
+            }
+        }
+        return n - 1;
+    }
+
+    private static int weighted(SplittableRandom random, double[] weights) {
+        double point = random.nextDouble();
+        for (int i = 0; i < weights.length; i++) {
+            point -= weights[i];
+            if (point <= 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
@@ -0,0 +1,313 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.codec.ExpenseCodec;
+import com.expensetracker.codec.UserCodec;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseBucket;
+import com.expensetracker.model.Money;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.BucketExpenseStore;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a synthetic dataset from {@link DatasetGenerator} into MongoDB
+ * and/or writes it as request bodies for POST /api/v1/expenses/import.
+ *
+ * Worker threads each take users in turn and insert them and their expenses
+ * with unordered insertMany batches, through the application's own codecs,
+ * so the documents are the ones the application writes. Indexes are built
+ * once loading finishes, which is much faster than maintaining them per
+ * insert. Users are loadtest-N with the load test's password, so a
+ * {@link LoadTest} run can sign in as them. Options are --name=value:
+ *
+ *   --mongo-uri     default mongodb://localhost:27017/expense-tracker
+ *   --users         default 1000
+ *   --mean-expenses mean expenses per user, default 1000 (about a million rows)
+ *   --max-expenses  cap for the heaviest users, default 50000
+ *   --history-days  default 730
+ *   --seed          default 42
+ *   --now           the end of the history, as 2024-06-01T00:00; default the current time
+ *   --layout        document or bucket, as app.storage.expense-layout; default document
+ *   --threads       default the number of processors
+ *   --batch-size    documents per insertMany, default 1000
+ *   --drop          drop users, expenses and expense_buckets first
+ *   --import-dir    also write import bodies, one directory per user
+ *   --import-size   expenses per import body, default 500
+ *   --skip-mongo    only write the import bodies
+ */
+public final class DatasetSeeder {
+
+    private DatasetSeeder() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        DatasetGenerator generator = new DatasetGenerator(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("mean-expenses", "1000")),
+                Integer.parseInt(options.getOrDefault("max-expenses", "50000")),
+                Integer.parseInt(options.getOrDefault("history-days", "730")),
+                options.containsKey("now") ? LocalDateTime.parse(options.get("now")) : LocalDateTime.now());
+        boolean skipMongo = options.containsKey("skip-mongo");
+        Path importDir = options.containsKey("import-dir") ? Path.of(options.get("import-dir")) : null;
+        int importSize = Integer.parseInt(options.getOrDefault("import-size", "500"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "1000"));
+        boolean buckets = "bucket".equals(options.getOrDefault("layout", "document"));
+
+        // Every user shares the load test's password, so hash it once
+        String passwordHash = new BCryptPasswordEncoder(10).encode(VirtualUser.PASSWORD);
+
+        MongoClient client = null;
+        MongoDatabase database = null;
+        if (!skipMongo) {
+            ConnectionString uri = new ConnectionString(options.getOrDefault("mongo-uri", "mongodb://localhost:27017/expense-tracker"));
+            CodecRegistry codecs = CodecRegistries.fromRegistries(
+                    CodecRegistries.fromCodecs(new ExpenseCodec(), new UserCodec()),
+                    MongoClientSettings.getDefaultCodecRegistry());
+            client = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(uri)
+                    .codecRegistry(codecs)
+                    .applyToConnectionPoolSettings(pool -> pool.maxSize(Math.max(threads, 10)))
+                    .build());
+            database = client.getDatabase(uri.getDatabase() != null ? uri.getDatabase() : "expense-tracker");
+            if (options.containsKey("drop")) {
+                database.getCollection("users").drop();
+                database.getCollection("expenses").drop();
+                database.getCollection(BucketExpenseStore.COLLECTION).drop();
+            }
+        }
+
+        Loader loader = new Loader(database, buckets, batchSize, importDir, importSize);
+        AtomicInteger nextUser = new AtomicInteger();
+        long started = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    int index;
+                    while ((index = nextUser.getAndIncrement()) < users) {
+                        loader.load(generator.generate(index, passwordHash));
+                    }
+                    loader.flush();
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long loadMillis = System.currentTimeMillis() - started;
+            System.out.printf("Generated %d users and %d expenses in %.1f s (%.0f expenses/s)%n",
+                    users, loader.expenses.get(), loadMillis / 1000.0, loader.expenses.get() * 1000.0 / Math.max(1, loadMillis));
+
+            if (database != null) {
+                long indexStarted = System.currentTimeMillis();
+                createIndexes(database, buckets);
+                System.out.printf("Built indexes in %.1f s%n", (System.currentTimeMillis() - indexStarted) / 1000.0);
+            }
+        } finally {
+            pool.shutdownNow();
+            if (client != null) {
+                client.close();
+            }
+        }
+    }
+
+    /** The indexes the entity annotations declare, under the same names */
+    private static void createIndexes(MongoDatabase database, boolean buckets) {
+        MongoCollection<Document> users = database.getCollection("users");
+        users.createIndex(Indexes.ascending("username"), new IndexOptions().name("username").unique(true));
+        users.createIndex(Indexes.ascending("email"), new IndexOptions().name("email").unique(true));
+        if (buckets) {
+            MongoCollection<Document> bucketCollection = database.getCollection(BucketExpenseStore.COLLECTION);
+            bucketCollection.createIndex(Indexes.compoundIndex(Indexes.ascending("owner"), Indexes.descending("month")),
+                    new IndexOptions().name("owner_month_idx"));
+            bucketCollection.createIndex(Indexes.ascending("owner", "month", "part"), new IndexOptions()
+                    .name("owner_month_part_idx").unique(true).partialFilterExpression(Filters.exists("part")));
+            bucketCollection.createIndex(Indexes.ascending("owner", "expenses._id"),
+                    new IndexOptions().name("owner_expense_id_idx"));
+        } else {
+            MongoCollection<Document> expenses = database.getCollection("expenses");
+            expenses.createIndex(Indexes.compoundIndex(Indexes.ascending("owner"), Indexes.descending("expenseDate")),
+                    new IndexOptions().name("owner_date_idx"));
+            expenses.createIndex(Indexes.ascending("owner", "category"), new IndexOptions().name("owner_category_idx"));
+        }
+    }
+
+    /**
+     * Buffers documents per worker thread and inserts them a batch at a time.
+     */
+    private static final class Loader {
+
+        private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+        private static final JsonFactory JSON = new JsonFactory();
+
+        private final MongoCollection<User> users;
+        private final MongoCollection<Expense> expenseCollection;
+        private final MongoCollection<Document> bucketCollection;
+        private final boolean buckets;
+        private final int batchSize;
+        private final Path importDir;
+        private final int importSize;
+        private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+        private final AtomicLong expenses = new AtomicLong();
+
+        Loader(MongoDatabase database, boolean buckets, int batchSize, Path importDir, int importSize) {
+            this.users = database == null ? null : database.getCollection("users", User.class);
+            this.expenseCollection = database == null ? null : database.getCollection("expenses", Expense.class);
+            this.bucketCollection = database == null ? null : database.getCollection(BucketExpenseStore.COLLECTION);
+            this.buckets = buckets;
+            this.batchSize = batchSize;
+            this.importDir = importDir;
+            this.importSize = importSize;
+        }
+
+        void load(DatasetGenerator.GeneratedUser generated) throws IOException {
+            expenses.addAndGet(generated.expenses().size());
+            if (importDir != null) {
+                writeImportBodies(generated);
+            }
+            if (users == null) {
+                return;
+            }
+            Batch batch = batches.get();
+            batch.users.add(generated.user());
+            if (buckets) {
+                batch.documents += addBuckets(batch.buckets, generated);
+            } else {
+                batch.expenses.addAll(generated.expenses());
+                batch.documents += generated.expenses().size();
+            }
+            if (batch.documents >= batchSize || batch.users.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (users == null) {
+                return;
+            }
+            Batch batch = batches.get();
+            if (!batch.users.isEmpty()) {
+                users.insertMany(batch.users, UNORDERED);
+            }
+            // Sliced, so one heavy user does not become one oversized insertMany
+            for (int from = 0; from < batch.expenses.size(); from += batchSize) {
+                expenseCollection.insertMany(batch.expenses.subList(from, Math.min(from + batchSize, batch.expenses.size())), UNORDERED);
+            }
+            if (!batch.buckets.isEmpty()) {
+                bucketCollection.insertMany(batch.buckets, UNORDERED);
+            }
+            batch.clear();
+        }
+
+        /**
+         * Groups the user's expenses into month buckets as BucketExpenseStore
+         * and BucketLayoutMigration write them, splitting busy months into parts.
+         */
+        private static int addBuckets(List<Document> out, DatasetGenerator.GeneratedUser generated) {
+            Map<String, List<Expense>> byMonth = new LinkedHashMap<>();
+            for (Expense expense : generated.expenses()) {
+                byMonth.computeIfAbsent(BucketExpenseStore.monthOf(expense.getExpenseDate()), k -> new ArrayList<>()).add(expense);
+            }
+            String owner = generated.user().getId();
+            int added = 0;
+            for (Map.Entry<String, List<Expense>> entry : byMonth.entrySet()) {
+                List<Expense> month = entry.getValue();
+                for (int from = 0, part = 0; from < month.size(); from += BucketExpenseStore.MAX_EXPENSES_PER_BUCKET, part++) {
+                    List<Expense> chunk = month.subList(from, Math.min(month.size(), from + BucketExpenseStore.MAX_EXPENSES_PER_BUCKET));
+                    out.add(new Document("_id", BucketExpenseStore.bucketId(owner, entry.getKey(), part))
+                            .append("owner", owner)
+                            .append("month", entry.getKey())
+                            .append("part", part)
+                            .append("count", (long) chunk.size())
+                            .append("expenses", chunk)
+                            .append("_class", ExpenseBucket.class.getName()));
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        private void writeImportBodies(DatasetGenerator.GeneratedUser generated) throws IOException {
+            Path dir = importDir.resolve(generated.user().getUsername());
+            Files.createDirectories(dir);
+            List<Expense> all = generated.expenses();
+            for (int from = 0, part = 1; from < all.size(); from += importSize, part++) {
+                Path file = dir.resolve(String.format("import-%04d.json", part));
+                try (JsonGenerator json = JSON.createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+                    json.writeStartObject();
+                    json.writeArrayFieldStart("expenses");
+                    for (Expense expense : all.subList(from, Math.min(from + importSize, all.size()))) {
+                        json.writeStartObject();
+                        json.writeStringField("name", expense.getName());
+                        json.writeFieldName("amount");
+                        json.writeNumber(Money.ofMinor(expense.getAmountMinor()).toBigDecimal());
+                        json.writeStringField("expenseDate", expense.getExpenseDate().toString());
+                        json.writeStringField("category", expense.getCategory());
+                        json.writeStringField("paymentType", expense.getPaymentType());
+                        json.writeStringField("comment", expense.getComment());
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+            }
+        }
+    }
+
+    private static final class Batch {
+        final List<User> users = new ArrayList<>();
+        final List<Expense> expenses = new ArrayList<>();
+        final List<Document> buckets = new ArrayList<>();
+        int documents;
+
+        void clear() {
+            users.clear();
+            expenses.clear();
+            buckets.clear();
+            documents = 0;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.expensetracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The API calls a workload is made of. Each builds one request for a
+ * virtual user; bodies are small fixed shapes with randomized values.
+ */
+public enum Endpoint {
+
+    LOGIN {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            return post(base, "/api/v1/users/login", "{\"username\":\"" + user.username()
+                    + "\",\"password\":\"" + VirtualUser.PASSWORD + "\"}");
+        }
+    },
+    DASHBOARD {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            String[] filters = {"week", "month", "year"};
+            return get(base, "/api/v1/expenses/dashboard?timeFilter=" + filters[random().nextInt(filters.length)]);
+        }
+    },
+    LIST {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            // Mostly the first pages, as real paging is
+            int page = 1 + (int) Math.min(20, -Math.log(1 - random().nextDouble()) * 2);
+            return get(base, "/api/v1/expenses?page=" + page + "&limit=10&sortBy=expenseDate&sortType=desc");
+        }
+    },
+    STATS {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            return get(base, "/api/v1/expenses/stats");
+        }
+    },
+    SUMMARY {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            LocalDate end = LocalDate.now();
+            return get(base, "/api/v1/expenses/summary?startDate=" + end.minusDays(30) + "&endDate=" + end);
+        }
+    },
+    CREATE {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            return post(base, "/api/v1/expenses", Payloads.expense(random()));
+        }
+    },
+    IMPORT {
+        @Override
+        HttpRequest.Builder request(URI base, VirtualUser user) {
+            return post(base, "/api/v1/expenses/import", Payloads.importBatch(random(), 50));
+        }
+    };
+
+    abstract HttpRequest.Builder request(URI base, VirtualUser user);
+
+    /** Whether the request needs the user's access token */
+    boolean authenticated() {
+        return this != LOGIN;
+    }
+
+    static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    static HttpRequest.Builder post(URI base, String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
@@ -0,0 +1,174 @@
+package com.expensetracker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counts per endpoint for one run.
+ *
+ * Latencies are kept in HdrHistograms at three significant digits, so
+ * the tail percentiles are exact to within 0.1% rather than averaged away.
+ */
+public final class LatencyReport {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    private final String profile;
+    private final double targetRate;
+    private long durationMillis;
+
+    public LatencyReport(String profile, double targetRate, Endpoint[] endpoints) {
+        this.profile = profile;
+        this.targetRate = targetRate;
+        for (Endpoint endpoint : endpoints) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    void record(Endpoint endpoint, int status, long latencyNanos) {
+        Stats s = stats.get(endpoint);
+        s.latency.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (status >= 500) {
+            s.serverErrors.increment();
+        } else if (status >= 400) {
+            s.clientErrors.increment();
+        }
+    }
+
+    void failed(Endpoint endpoint, long latencyNanos) {
+        Stats s = stats.get(endpoint);
+        s.latency.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        s.failures.increment();
+    }
+
+    void dropped(Endpoint endpoint) {
+        stats.get(endpoint).dropped.increment();
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Profile %s, target %.1f req/s over %.1f s%n", profile, targetRate, durationMillis / 1000.0);
+        out.printf("%-10s %8s %8s %6s %6s %6s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "4xx", "5xx", "fail", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram h = s.latency;
+            out.printf("%-10s %8d %8.1f %6d %6d %6d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), h.getTotalCount(), rate(h.getTotalCount()),
+                    s.clientErrors.sum(), s.serverErrors.sum(), s.failures.sum(), s.dropped.sum(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+        }
+    }
+
+    public void write(Path file, ObjectMapper objectMapper) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("profile", profile);
+        root.put("targetRate", targetRate);
+        root.put("durationMs", durationMillis);
+        ObjectNode endpoints = root.putObject("endpoints");
+        for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            ObjectNode node = endpoints.putObject(entry.getKey().name().toLowerCase());
+            node.put("count", s.latency.getTotalCount());
+            node.put("clientErrors", s.clientErrors.sum());
+            node.put("serverErrors", s.serverErrors.sum());
+            node.put("failures", s.failures.sum());
+            node.put("dropped", s.dropped.sum());
+            for (double percentile : PERCENTILES) {
+                node.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                        millis(s.latency.getValueAtPercentile(percentile)));
+            }
+            node.put("max", millis(s.latency.getMaxValue()));
+        }
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), root);
+    }
+
+    /**
+     * Compares this run's p99 per endpoint with a report written by an earlier
+     * run. Returns a line per endpoint that got slower than tolerance allows
+     * (0.1 = 10%), whose server error count appeared where there were none, or
+     * whose share of failed or dropped requests grew by more than tolerance.
+     * Dropped requests never reach the histogram, so a server saturated past
+     * --max-in-flight shows up in the dropped share rather than in the p99.
+     */
+    public List<String> regressionsAgainst(Path baselineFile, double tolerance, ObjectMapper objectMapper)
+            throws IOException {
+        JsonNode baseline = objectMapper.readTree(baselineFile.toFile()).path("endpoints");
+        List<String> regressions = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = baseline.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            Stats s = stats.get(Endpoint.valueOf(field.getKey().toUpperCase()));
+            if (s == null || s.latency.getTotalCount() + s.dropped.sum() == 0) {
+                continue;
+            }
+            double before = field.getValue().path("p99").asDouble();
+            double now = millis(s.latency.getValueAtPercentile(99));
+            if (before > 0 && s.latency.getTotalCount() > 0 && now > before * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.2f ms -> %.2f ms (+%.0f%%)",
+                        field.getKey(), before, now, (now / before - 1) * 100));
+            }
+            if (field.getValue().path("serverErrors").asLong() == 0 && s.serverErrors.sum() > 0) {
+                regressions.add(String.format("%s %d server errors, none in baseline", field.getKey(), s.serverErrors.sum()));
+            }
+            long attempted = s.latency.getTotalCount() + s.dropped.sum();
+            long attemptedBefore = field.getValue().path("count").asLong() + field.getValue().path("dropped").asLong();
+            compareShare(regressions, field.getKey(), "failed", field.getValue().path("failures").asLong(), attemptedBefore,
+                    s.failures.sum(), attempted, tolerance);
+            compareShare(regressions, field.getKey(), "dropped", field.getValue().path("dropped").asLong(), attemptedBefore,
+                    s.dropped.sum(), attempted, tolerance);
+        }
+        return regressions;
+    }
+
+    /** Runs differ in length, so outcomes are compared as a share of the requests attempted */
+    private static void compareShare(List<String> regressions, String endpoint, String outcome,
+                                     long before, long attemptedBefore, long now, long attempted, double tolerance) {
+        if (now == 0) {
+            return;
+        }
+        double shareBefore = attemptedBefore == 0 ? 0 : (double) before / attemptedBefore;
+        double share = (double) now / attempted;
+        if (share > shareBefore * (1 + tolerance)) {
+            regressions.add(String.format("%s %s %.2f%% -> %.2f%% of requests",
+                    endpoint, outcome, shareBefore * 100, share * 100));
+        }
+    }
+
+    private double rate(long count) {
+        return durationMillis == 0 ? 0 : count * 1000.0 / durationMillis;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+}
@@ -0,0 +1,179 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Command-line entry point of the load test.
+ *
+ * Registers (or logs in) a pool of load-test users, warms the target up,
+ * then drives it open-loop with the chosen workload and prints the latency
+ * per endpoint. Options are --name=value:
+ *
+ *   --base-url      target, default http://localhost:8080
+ *   --embedded      start the application in this JVM on a random port instead;
+ *                   --app.* and --spring.* options are passed through to it, e.g.
+ *                   --app.storage.backend=memory to leave the database out
+ *   --profile       mixed, login-burst, dashboard, paging, import, or a weights file
+ *   --rate          requests per second, default 100
+ *   --duration      seconds, default 60
+ *   --warmup        seconds at the same rate before measuring, default 10
+ *   --users         virtual users, default 50
+ *   --max-in-flight requests outstanding before new ones are dropped, default 1000
+ *   --seed          arrival and choice seed, default 42
+ *   --report        write the results as JSON to this file
+ *   --baseline      compare with a report from an earlier run, exiting 1 on regression
+ *   --tolerance     allowed growth in p99 and in the failed and dropped shares, default 0.2
+ */
+public final class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> passThrough = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--app.") || arg.startsWith("--spring.")) {
+                passThrough.add(arg);
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+
+        ConfigurableApplicationContext embedded = null;
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        if (options.containsKey("embedded")) {
+            passThrough.add("--server.port=0");
+            embedded = SpringApplication.run(ExpenseTrackerApplication.class, passThrough.toArray(new String[0]));
+            baseUrl = "http://localhost:" + embedded.getEnvironment().getProperty("local.server.port");
+        }
+
+        int status;
+        try {
+            status = run(URI.create(baseUrl), options);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.exit(status);
+    }
+
+    private static int run(URI baseUrl, Map<String, String> options) throws Exception {
+        WorkloadProfile profile = WorkloadProfile.named(options.getOrDefault("profile", "mixed"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        int userCount = Integer.parseInt(options.getOrDefault("users", "50"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .build();
+
+        System.out.printf("Signing in %d users at %s%n", userCount, baseUrl);
+        List<VirtualUser> users = signIn(client, baseUrl, userCount, objectMapper);
+        OpenLoopDriver driver = new OpenLoopDriver(client, baseUrl, profile, users, maxInFlight, REQUEST_TIMEOUT);
+
+        if (!warmup.isZero()) {
+            System.out.printf("Warming up for %d s%n", warmup.toSeconds());
+            driver.run(rate, warmup, new LatencyReport(profile.name(), rate, Endpoint.values()), seed - 1);
+        }
+
+        System.out.printf("Running %s at %.1f req/s for %d s%n", profile.name(), rate, duration.toSeconds());
+        LatencyReport report = new LatencyReport(profile.name(), rate, profile.endpoints());
+        long started = System.currentTimeMillis();
+        driver.run(rate, duration, report, seed);
+        report.setDurationMillis(System.currentTimeMillis() - started);
+        report.print(System.out);
+
+        if (options.containsKey("report")) {
+            report.write(Path.of(options.get("report")), objectMapper);
+        }
+        if (options.containsKey("baseline")) {
+            double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+            List<String> regressions = report.regressionsAgainst(Path.of(options.get("baseline")), tolerance, objectMapper);
+            if (!regressions.isEmpty()) {
+                System.out.println("Regressions against " + options.get("baseline") + ":");
+                regressions.forEach(line -> System.out.println("  " + line));
+                return 1;
+            }
+            System.out.println("No regressions against " + options.get("baseline"));
+        }
+        return 0;
+    }
+
+    /**
+     * Registers loadtest-N users, logging in instead where they already exist
+     * from an earlier run.
+     */
+    private static List<VirtualUser> signIn(HttpClient client, URI baseUrl, int count, ObjectMapper objectMapper) {
+        List<CompletableFuture<VirtualUser>> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "loadtest-" + i;
+            ObjectNode register = objectMapper.createObjectNode()
+                    .put("name", "Load Test " + i)
+                    .put("username", username)
+                    .put("email", username + "@loadtest.invalid")
+                    .put("password", VirtualUser.PASSWORD);
+            ObjectNode login = objectMapper.createObjectNode()
+                    .put("username", username)
+                    .put("password", VirtualUser.PASSWORD);
+            pending.add(post(client, baseUrl, "/api/v1/users/register", register.toString())
+                    .thenCompose(response -> response.statusCode() / 100 == 2
+                            ? CompletableFuture.completedFuture(response)
+                            : post(client, baseUrl, "/api/v1/users/login", login.toString()))
+                    .thenApply(response -> new VirtualUser(username, accessToken(response, objectMapper))));
+        }
+        List<VirtualUser> users = new ArrayList<>(count);
+        for (CompletableFuture<VirtualUser> user : pending) {
+            users.add(user.join());
+        }
+        return users;
+    }
+
+    private static CompletableFuture<HttpResponse<String>> post(HttpClient client, URI baseUrl, String path, String json) {
+        HttpRequest request = Endpoint.post(baseUrl, path, json).timeout(REQUEST_TIMEOUT).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String accessToken(HttpResponse<String> response, ObjectMapper objectMapper) {
+        try {
+            JsonNode token = objectMapper.readTree(response.body()).path("data").path("accessToken");
+            if (response.statusCode() / 100 != 2 || token.isMissingNode()) {
+                throw new IllegalStateException("Sign-in failed with " + response.statusCode() + ": " + response.body());
+            }
+            return token.asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable sign-in response: " + response.body(), e);
+        }
+    }
+}
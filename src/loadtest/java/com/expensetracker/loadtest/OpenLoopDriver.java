@@ -0,0 +1,121 @@
+package com.expensetracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends requests on a Poisson arrival schedule, independent of how fast the
+ * server answers.
+ *
+ * A closed loop (send, wait, send) slows down with the server and so never
+ * sees the queueing a real client population causes. Here every request has
+ * an intended start time fixed in advance, and its latency is measured from
+ * that time, not from when it was actually sent, so a stall shows up in the
+ * latency of everything scheduled behind it.
+ */
+public final class OpenLoopDriver {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final URI baseUrl;
+    private final WorkloadProfile profile;
+    private final AtomicReferenceArray<VirtualUser> users;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration timeout;
+
+    public OpenLoopDriver(HttpClient client, URI baseUrl, WorkloadProfile profile, List<VirtualUser> users,
+                          int maxInFlight, Duration timeout) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.users = new AtomicReferenceArray<>(users.toArray(new VirtualUser[0]));
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Drives the target at ratePerSecond for the duration, recording into the
+     * report, and waits for outstanding requests before returning.
+     */
+    public void run(double ratePerSecond, Duration duration, LatencyReport report, long seed)
+            throws InterruptedException {
+        SplittableRandom arrivals = new SplittableRandom(seed);
+        Random choices = new Random(seed ^ 0x5DEECE66DL);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - arrivals.nextDouble()) * meanGapNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(profile.next(choices), choices.nextInt(users.length()), intended, report);
+        }
+
+        awaitIdle();
+    }
+
+    private void send(Endpoint endpoint, int userIndex, long intended, LatencyReport report) {
+        if (!inFlight.tryAcquire()) {
+            // Blocking here would let the server's slowness throttle the schedule
+            report.dropped(endpoint);
+            return;
+        }
+        VirtualUser user = users.get(userIndex);
+        HttpRequest.Builder builder = endpoint.request(baseUrl, user).timeout(timeout);
+        if (endpoint.authenticated()) {
+            builder.header("Authorization", "Bearer " + user.accessToken());
+        }
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        long latency = System.nanoTime() - intended;
+                        if (error != null) {
+                            report.failed(endpoint, latency);
+                            return;
+                        }
+                        report.record(endpoint, response.statusCode(), latency);
+                        if (endpoint == Endpoint.LOGIN && response.statusCode() == 200) {
+                            refreshToken(userIndex, response.body());
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private void refreshToken(int userIndex, String body) {
+        Matcher matcher = ACCESS_TOKEN.matcher(body);
+        if (matcher.find()) {
+            users.updateAndGet(userIndex, user -> user.withAccessToken(matcher.group(1)));
+        }
+    }
+
+    /** Every permit back means nothing is outstanding; requests time out, so this ends */
+    private void awaitIdle() throws InterruptedException {
+        if (inFlight.tryAcquire(maxInFlight, timeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+    }
+}
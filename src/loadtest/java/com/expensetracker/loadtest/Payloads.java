@@ -0,0 +1,42 @@
+package com.expensetracker.loadtest;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Request bodies for the write endpoints.
+ */
+final class Payloads {
+
+    private static final String[] CATEGORIES = {"Food", "Groceries", "Travel", "Bills", "Shopping", "Health", "Fun"};
+    private static final String[] PAYMENTS = {"Card", "Cash", "UPI"};
+
+    private Payloads() {
+    }
+
+    static String expense(Random random) {
+        return expense(random, LocalDateTime.now().minusMinutes(random.nextInt(60 * 24 * 365)));
+    }
+
+    static String importBatch(Random random, int rows) {
+        StringBuilder json = new StringBuilder(rows * 160).append("{\"expenses\":[");
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(expense(random, now.minusMinutes(random.nextInt(60 * 24 * 365))));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String expense(Random random, LocalDateTime date) {
+        long cents = 100 + (long) (Math.exp(random.nextGaussian() * 1.2 + 6.5));
+        return "{\"name\":\"Load test " + random.nextInt(10_000) + "\""
+                + ",\"amount\":" + cents / 100 + "." + String.format("%02d", cents % 100)
+                + ",\"category\":\"" + CATEGORIES[Math.min(CATEGORIES.length - 1, (int) Math.abs(random.nextGaussian() * 2))] + "\""
+                + ",\"paymentType\":\"" + PAYMENTS[random.nextInt(PAYMENTS.length)] + "\""
+                + ",\"expenseDate\":\"" + date.withNano(0) + "\""
+                + ",\"comment\":\"\"}";
+    }
+}
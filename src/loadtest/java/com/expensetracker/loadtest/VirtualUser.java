@@ -0,0 +1,13 @@
+package com.expensetracker.loadtest;
+
+/**
+ * A registered account the load test sends requests as.
+ */
+public record VirtualUser(String username, String accessToken) {
+
+    static final String PASSWORD = "load-test-password";
+
+    VirtualUser withAccessToken(String token) {
+        return new VirtualUser(username, token);
+    }
+}
@@ -0,0 +1,105 @@
+package com.expensetracker.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Relative weights of the endpoints in a traffic mix.
+ *
+ * Built-in profiles are named; a properties file of ENDPOINT=weight lines
+ * can be given instead.
+ */
+public final class WorkloadProfile {
+
+    private final String name;
+    private final Endpoint[] endpoints;
+    private final double[] cumulative;
+
+    private WorkloadProfile(String name, Map<Endpoint, Double> weights) {
+        this.name = name;
+        this.endpoints = weights.keySet().toArray(new Endpoint[0]);
+        this.cumulative = new double[endpoints.length];
+        double total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    public static WorkloadProfile named(String name) throws IOException {
+        Map<Endpoint, Double> weights = new EnumMap<>(Endpoint.class);
+        switch (name) {
+            case "mixed":
+                // Roughly production: dashboard polling dominates, then paging, with occasional writes
+                weights.put(Endpoint.DASHBOARD, 40.0);
+                weights.put(Endpoint.LIST, 25.0);
+                weights.put(Endpoint.STATS, 10.0);
+                weights.put(Endpoint.SUMMARY, 8.0);
+                weights.put(Endpoint.CREATE, 10.0);
+                weights.put(Endpoint.LOGIN, 6.0);
+                weights.put(Endpoint.IMPORT, 1.0);
+                break;
+            case "login-burst":
+                weights.put(Endpoint.LOGIN, 80.0);
+                weights.put(Endpoint.DASHBOARD, 20.0);
+                break;
+            case "dashboard":
+                weights.put(Endpoint.DASHBOARD, 70.0);
+                weights.put(Endpoint.STATS, 20.0);
+                weights.put(Endpoint.SUMMARY, 10.0);
+                break;
+            case "paging":
+                weights.put(Endpoint.LIST, 100.0);
+                break;
+            case "import":
+                weights.put(Endpoint.IMPORT, 70.0);
+                weights.put(Endpoint.LIST, 30.0);
+                break;
+            default:
+                return fromFile(Path.of(name));
+        }
+        return new WorkloadProfile(name, weights);
+    }
+
+    private static WorkloadProfile fromFile(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("Unknown workload profile: " + file);
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        Map<Endpoint, Double> weights = new EnumMap<>(Endpoint.class);
+        for (String key : properties.stringPropertyNames()) {
+            weights.put(Endpoint.valueOf(key.trim().toUpperCase()), Double.parseDouble(properties.getProperty(key)));
+        }
+        return new WorkloadProfile(file.getFileName().toString(), weights);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Endpoint next(Random random) {
+        double point = random.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (point < cumulative[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    Endpoint[] endpoints() {
+        return endpoints.clone();
+    }
+}
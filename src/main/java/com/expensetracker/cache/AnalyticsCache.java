@@ -0,0 +1,206 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.ExpenseStatsResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Optional per-user columnar cache that answers stats queries without going
+ * to Mongo. Snapshots are loaded lazily, patched on local writes, dropped on
+ * invalidations from other instances, and evicted least-recently-used once
+ * the byte budget is exceeded.
+ *
+ * Concurrent misses share one load, keyed by the user's write generation, so a
+ * read issued after the user's own write never joins a load that started
+ * before it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsCache implements InvalidationListener {
+
+    private static final int WRITE_STRIPES = 64;
+
+    private final ExpenseStore expenseStore;
+    private final CacheInvalidationBus invalidationBus;
+
+    @Value("${app.cache.analytics.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.cache.analytics.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<String, ExpenseColumns> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final SingleFlight<LoadKey, ExpenseColumns> loads = new SingleFlight<>();
+    // Bumped on every write so a load that raced a write is not installed
+    private final AtomicLongArray writeStripes = new AtomicLongArray(WRITE_STRIPES);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void register() {
+        invalidationBus.addListener(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<ExpenseStatsResponse> stats(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(columns(userId).stats(startDate, endDate));
+    }
+
+    public void onSaved(Expense expense) {
+        if (!enabled) {
+            return;
+        }
+        String userId = expense.getOwner();
+        bumpWrites(userId);
+        synchronized (entries) {
+            ExpenseColumns current = entries.get(userId);
+            if (current != null) {
+                replace(userId, current, current.with(expense));
+            }
+        }
+    }
+
+    /**
+     * Bulk writes (imports) drop the snapshot instead of patching it row by row,
+     * since every patch copies the columns.
+     */
+    public void onSaved(Collection<Expense> expenses) {
+        if (!enabled) {
+            return;
+        }
+        expenses.stream().map(Expense::getOwner).distinct().forEach(this::evict);
+    }
+
+    public void onDeleted(String userId, String expenseId) {
+        if (!enabled) {
+            return;
+        }
+        bumpWrites(userId);
+        synchronized (entries) {
+            ExpenseColumns current = entries.get(userId);
+            if (current != null) {
+                replace(userId, current, current.without(expenseId));
+            }
+        }
+    }
+
+    public void evict(String userId) {
+        bumpWrites(userId);
+        synchronized (entries) {
+            ExpenseColumns removed = entries.remove(userId);
+            if (removed != null) {
+                bytes -= removed.estimatedBytes();
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidate(InvalidationEvent event) {
+        evict(event.userId());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private ExpenseColumns columns(String userId) {
+        synchronized (entries) {
+            ExpenseColumns cached = entries.get(userId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long writesBefore = writeStripes.get(stripe(userId));
+        return loads.execute(new LoadKey(userId, writesBefore), () -> load(userId, writesBefore));
+    }
+
+    private ExpenseColumns load(String userId, long writesBefore) {
+        List<Expense> expenses = expenseStore.findAnalyticsFields(userId);
+        ExpenseColumns loaded = ExpenseColumns.of(expenses);
+
+        synchronized (entries) {
+            if (writeStripes.get(stripe(userId)) == writesBefore && !entries.containsKey(userId)) {
+                entries.put(userId, loaded);
+                bytes += loaded.estimatedBytes();
+                evictOverBudget();
+            }
+        }
+        log.debug("Loaded {} expenses into analytics cache for user: {}", loaded.size(), userId);
+        return loaded;
+    }
+
+    private void replace(String userId, ExpenseColumns current, ExpenseColumns updated) {
+        entries.put(userId, updated);
+        bytes += updated.estimatedBytes() - current.estimatedBytes();
+        evictOverBudget();
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, ExpenseColumns>> iterator = entries.entrySet().iterator();
+        // Keep at least the most recent entry even if it alone exceeds the budget
+        while (bytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, ExpenseColumns> eldest = iterator.next();
+            bytes -= eldest.getValue().estimatedBytes();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void bumpWrites(String userId) {
+        writeStripes.incrementAndGet(stripe(userId));
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+
+    private record LoadKey(String userId, long writeGeneration) {
+    }
+}
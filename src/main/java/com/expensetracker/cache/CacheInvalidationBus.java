@@ -0,0 +1,173 @@
+package com.expensetracker.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes "user data changed" events from the write paths so other instances
+ * can drop their cached copies.
+ *
+ * Writes are coalesced per user: a burst of changes inside one window goes out
+ * as a single event carrying the highest version. Events that fail to publish
+ * are merged back and retried on the next flush.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private final InvalidationTransport transport;
+
+    @Value("${app.cache.invalidation.coalesce-window-ms:50}")
+    private long coalesceWindowMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        transport.subscribe(this::deliver);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public void publish(String userId) {
+        if (userId == null) {
+            return;
+        }
+        requested.incrementAndGet();
+        pending.merge(userId, nextVersion(), Math::max);
+    }
+
+    /**
+     * For writes that bypass the write paths' cache updates, such as account
+     * purges: evicts the user from this node's caches as well as publishing.
+     */
+    public void invalidate(String userId) {
+        if (userId == null) {
+            return;
+        }
+        publish(userId);
+        notifyListeners(new InvalidationEvent(userId, nextVersion(), nodeId, System.currentTimeMillis()));
+    }
+
+    public void addListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getRequestedCount() {
+        return requested.get();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getPendingCount() {
+        return pending.size();
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs.get();
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs.get();
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<InvalidationEvent> batch = new ArrayList<>(pending.size());
+        for (String userId : pending.keySet()) {
+            Long version = pending.remove(userId);
+            if (version != null) {
+                batch.add(new InvalidationEvent(userId, version, nodeId, now));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transport.publish(batch);
+            published.addAndGet(batch.size());
+        } catch (Exception e) {
+            log.warn("Failed to publish {} invalidation events, will retry: {}", batch.size(), e.getMessage());
+            for (InvalidationEvent event : batch) {
+                pending.merge(event.userId(), event.version(), Math::max);
+            }
+        }
+    }
+
+    private void deliver(InvalidationEvent event) {
+        if (nodeId.equals(event.origin())) {
+            // Local writes already updated this node's caches
+            return;
+        }
+        received.incrementAndGet();
+        long lag = Math.max(0, System.currentTimeMillis() - event.publishedAt());
+        lastLagMs.set(lag);
+        maxLagMs.accumulateAndGet(lag, Math::max);
+        notifyListeners(event);
+    }
+
+    private void notifyListeners(InvalidationEvent event) {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidate(event);
+            } catch (Exception e) {
+                log.error("Invalidation listener failed for user {}: {}", event.userId(), e.getMessage());
+            }
+        }
+    }
+
+    private long nextVersion() {
+        long now = System.currentTimeMillis();
+        return clock.accumulateAndGet(now, (last, wall) -> Math.max(last + 1, wall));
+    }
+}
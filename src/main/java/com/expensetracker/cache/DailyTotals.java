@@ -0,0 +1,252 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.SpendingSummaryResponse;
+import com.expensetracker.model.Money;
+import com.expensetracker.repository.ExpenseStore;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's spending, in minor units, by calendar day, overall and per
+ * category, kept in Fenwick trees so any inclusive day range sums in
+ * O(log days) and a single day's change applies in O(log days).
+ *
+ * Slots are the days that have spending, kept sorted, rather than every day
+ * between the first and the last: one expense far in the past or future costs
+ * one slot, not a slot for each day in between. A day seen for the first time
+ * is inserted in linear time. At most {@link #MAX_DAYS} distinct days are
+ * held; adding another throws {@link IllegalStateException}.
+ */
+public final class DailyTotals {
+
+    /** Over 179 years of daily spending; bounds each tree at 2 MB */
+    public static final int MAX_DAYS = 1 << 16;
+
+    private static final int MIN_CAPACITY = 64;
+
+    // Sorted epoch days with spending; the first size entries are in use
+    private long[] days;
+    private int size;
+    private final Fenwick overall;
+    private final Map<String, Fenwick> byCategory = new HashMap<>();
+
+    private DailyTotals(long[] days, int size) {
+        this.days = days;
+        this.size = size;
+        this.overall = new Fenwick(days.length);
+    }
+
+    public static DailyTotals empty() {
+        return new DailyTotals(new long[MIN_CAPACITY], 0);
+    }
+
+    /**
+     * Builds from (day, category) rows in any order, in O(rows log rows).
+     */
+    public static DailyTotals of(List<ExpenseStore.DailyCategoryTotal> rows) {
+        long[] distinct = rows.stream()
+                .filter(row -> row.day() != null)
+                .mapToLong(row -> row.day().toEpochDay())
+                .sorted()
+                .distinct()
+                .toArray();
+        if (distinct.length > MAX_DAYS) {
+            throw tooManyDays();
+        }
+        int capacity = capacityFor(distinct.length);
+        DailyTotals totals = new DailyTotals(Arrays.copyOf(distinct, capacity), distinct.length);
+        for (ExpenseStore.DailyCategoryTotal row : rows) {
+            if (row.day() == null) {
+                continue;
+            }
+            int slot = Arrays.binarySearch(totals.days, 0, totals.size, row.day().toEpochDay());
+            totals.overall.addRaw(slot, row.totalMinor(), row.count());
+            totals.byCategory.computeIfAbsent(row.category(), c -> new Fenwick(capacity))
+                    .addRaw(slot, row.totalMinor(), row.count());
+        }
+        totals.overall.build();
+        for (Fenwick tree : totals.byCategory.values()) {
+            tree.build();
+        }
+        return totals;
+    }
+
+    public synchronized void add(LocalDate day, String category, long amount, long count) {
+        if (day == null) {
+            return;
+        }
+        long epochDay = day.toEpochDay();
+        int slot = Arrays.binarySearch(days, 0, size, epochDay);
+        if (slot < 0) {
+            slot = -slot - 1;
+            insertDay(slot, epochDay);
+        }
+        overall.add(slot, amount, count);
+        byCategory.computeIfAbsent(category, c -> new Fenwick(days.length)).add(slot, amount, count);
+    }
+
+    /**
+     * Totals for the inclusive day range. Category totals are only computed when asked for.
+     */
+    public synchronized SpendingSummaryResponse sum(LocalDate from, LocalDate to, boolean withCategories) {
+        int fromSlot = firstSlotFrom(from.toEpochDay());
+        int toSlot = firstSlotFrom(to.toEpochDay() + 1) - 1;
+
+        long total = 0;
+        long count = 0;
+        List<SpendingSummaryResponse.CategoryTotal> categoryTotals = withCategories ? new ArrayList<>() : null;
+        if (fromSlot <= toSlot) {
+            total = overall.amount(fromSlot, toSlot);
+            count = overall.count(fromSlot, toSlot);
+            if (withCategories) {
+                for (Map.Entry<String, Fenwick> entry : byCategory.entrySet()) {
+                    long categoryCount = entry.getValue().count(fromSlot, toSlot);
+                    if (categoryCount > 0) {
+                        categoryTotals.add(SpendingSummaryResponse.CategoryTotal.builder()
+                                ._id(entry.getKey())
+                                .totalAmount(Money.ofMinor(entry.getValue().amount(fromSlot, toSlot)))
+                                .count(categoryCount)
+                                .build());
+                    }
+                }
+                categoryTotals.sort(Comparator.comparing(SpendingSummaryResponse.CategoryTotal::getTotalAmount).reversed());
+            }
+        }
+
+        return SpendingSummaryResponse.builder()
+                .startDate(from)
+                .endDate(to)
+                .totalAmount(Money.ofMinor(total))
+                .count(count)
+                .categoryTotals(categoryTotals)
+                .build();
+    }
+
+    public synchronized long estimatedBytes() {
+        // The day keys, then four arrays per tree: raw and cumulative amounts and counts
+        return 64 + (long) days.length * Long.BYTES + (long) (byCategory.size() + 1) * days.length * 4 * Long.BYTES;
+    }
+
+    /** The first slot whose day is on or after epochDay; size when there is none */
+    private int firstSlotFrom(long epochDay) {
+        int slot = Arrays.binarySearch(days, 0, size, epochDay);
+        return slot >= 0 ? slot : -slot - 1;
+    }
+
+    private void insertDay(int slot, long epochDay) {
+        if (size == MAX_DAYS) {
+            throw tooManyDays();
+        }
+        int capacity = size < days.length ? days.length : capacityFor(size + 1);
+        long[] newDays = new long[capacity];
+        System.arraycopy(days, 0, newDays, 0, slot);
+        System.arraycopy(days, slot, newDays, slot + 1, size - slot);
+        newDays[slot] = epochDay;
+        overall.insert(slot, size, capacity);
+        for (Fenwick tree : byCategory.values()) {
+            tree.insert(slot, size, capacity);
+        }
+        days = newDays;
+        size++;
+    }
+
+    private static int capacityFor(int days) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < days) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static IllegalStateException tooManyDays() {
+        return new IllegalStateException("More than " + MAX_DAYS + " distinct expense days");
+    }
+
+    private static final class Fenwick {
+
+        private long[] rawAmounts;
+        private long[] rawCounts;
+        private long[] amountTree;
+        private long[] countTree;
+
+        Fenwick(int capacity) {
+            rawAmounts = new long[capacity];
+            rawCounts = new long[capacity];
+            amountTree = new long[capacity + 1];
+            countTree = new long[capacity + 1];
+        }
+
+        void add(int slot, long amount, long count) {
+            rawAmounts[slot] += amount;
+            rawCounts[slot] += count;
+            for (int i = slot + 1; i < amountTree.length; i += i & -i) {
+                amountTree[i] += amount;
+                countTree[i] += count;
+            }
+        }
+
+        long amount(int fromSlot, int toSlot) {
+            return prefixAmount(toSlot + 1) - prefixAmount(fromSlot);
+        }
+
+        long count(int fromSlot, int toSlot) {
+            return prefixCount(toSlot + 1) - prefixCount(fromSlot);
+        }
+
+        void addRaw(int slot, long amount, long count) {
+            rawAmounts[slot] += amount;
+            rawCounts[slot] += count;
+        }
+
+        /** Opens an empty slot at the given position, moving later days up one */
+        void insert(int slot, int size, int newCapacity) {
+            long[] newRawAmounts = new long[newCapacity];
+            long[] newRawCounts = new long[newCapacity];
+            System.arraycopy(rawAmounts, 0, newRawAmounts, 0, slot);
+            System.arraycopy(rawCounts, 0, newRawCounts, 0, slot);
+            System.arraycopy(rawAmounts, slot, newRawAmounts, slot + 1, size - slot);
+            System.arraycopy(rawCounts, slot, newRawCounts, slot + 1, size - slot);
+            rawAmounts = newRawAmounts;
+            rawCounts = newRawCounts;
+            build();
+        }
+
+        /** Linear-time build: seed each node with its own slot, then push into the parent */
+        void build() {
+            int capacity = rawAmounts.length;
+            amountTree = new long[capacity + 1];
+            countTree = new long[capacity + 1];
+            for (int i = 1; i <= capacity; i++) {
+                amountTree[i] += rawAmounts[i - 1];
+                countTree[i] += rawCounts[i - 1];
+                int parent = i + (i & -i);
+                if (parent <= capacity) {
+                    amountTree[parent] += amountTree[i];
+                    countTree[parent] += countTree[i];
+                }
+            }
+        }
+
+        private long prefixAmount(int length) {
+            long sum = 0;
+            for (int i = length; i > 0; i -= i & -i) {
+                sum += amountTree[i];
+            }
+            return sum;
+        }
+
+        private long prefixCount(int length) {
+            long sum = 0;
+            for (int i = length; i > 0; i -= i & -i) {
+                sum += countTree[i];
+            }
+            return sum;
+        }
+    }
+}
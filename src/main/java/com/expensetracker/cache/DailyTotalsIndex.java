@@ -0,0 +1,176 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user {@link DailyTotals}, rebuilt from the store's per-day, per-category
+ * totals and then maintained incrementally by the expense write paths.
+ *
+ * When disabled, every call rebuilds a throwaway instance, so callers get the
+ * same answers either way. The rebuild costs one slot per distinct day with
+ * spending, whatever the dates span.
+ *
+ * A write calls {@link #beforeWrite} before it touches the store and passes
+ * the returned generation to the matching on* call afterwards. A load only
+ * installs its result if no write began while it ran, and an entry loaded
+ * after a write began may or may not include it, so that write evicts it
+ * rather than adding to it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DailyTotalsIndex implements InvalidationListener {
+
+    private static final int WRITE_STRIPES = 64;
+
+    private final ExpenseStore expenseStore;
+    private final CacheInvalidationBus invalidationBus;
+
+    @Value("${app.cache.daily-totals.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.cache.daily-totals.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final SingleFlight<String, DailyTotals> loads = new SingleFlight<>();
+    private final AtomicLongArray writeStripes = new AtomicLongArray(WRITE_STRIPES);
+
+    @PostConstruct
+    public void register() {
+        invalidationBus.addListener(this);
+    }
+
+    public DailyTotals get(String userId) {
+        if (!enabled) {
+            return rebuild(userId);
+        }
+        synchronized (entries) {
+            Entry cached = entries.get(userId);
+            if (cached != null) {
+                return cached.totals();
+            }
+        }
+        return loads.execute(userId, () -> load(userId));
+    }
+
+    /**
+     * Marks the start of a write to the user's expenses; call before the store write.
+     */
+    public long beforeWrite(String userId) {
+        return writeStripes.incrementAndGet(stripe(userId));
+    }
+
+    public void onCreated(Expense expense, long writeGeneration) {
+        apply(expense, 1, writeGeneration);
+    }
+
+    public void onCreated(Collection<Expense> expenses, long writeGeneration) {
+        for (Expense expense : expenses) {
+            apply(expense, 1, writeGeneration);
+        }
+    }
+
+    public void onUpdated(Expense before, Expense after, long writeGeneration) {
+        apply(before, -1, writeGeneration);
+        apply(after, 1, writeGeneration);
+    }
+
+    public void onDeleted(Expense expense, long writeGeneration) {
+        apply(expense, -1, writeGeneration);
+    }
+
+    public void evict(String userId) {
+        writeStripes.incrementAndGet(stripe(userId));
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    @Override
+    public void onInvalidate(InvalidationEvent event) {
+        evict(event.userId());
+    }
+
+    /**
+     * Builds a fresh index from the store: one row per (day, category) with its sum and count.
+     */
+    public DailyTotals rebuild(String userId) {
+        try {
+            return DailyTotals.of(expenseStore.dailyCategoryTotals(userId));
+        } catch (IllegalStateException e) {
+            throw new ApiException(422, "Too many distinct expense days to summarize");
+        }
+    }
+
+    private DailyTotals load(String userId) {
+        long writesBefore = writeStripes.get(stripe(userId));
+        DailyTotals loaded = rebuild(userId);
+        synchronized (entries) {
+            if (writeStripes.get(stripe(userId)) == writesBefore && !entries.containsKey(userId)) {
+                entries.put(userId, new Entry(loaded, writesBefore));
+                evictOverBudget();
+            }
+        }
+        log.debug("Rebuilt daily totals for user: {}", userId);
+        return loaded;
+    }
+
+    private void apply(Expense expense, int sign, long writeGeneration) {
+        if (!enabled || expense == null || expense.getExpenseDate() == null) {
+            return;
+        }
+        // Stops any load still running from installing a result that may predate the write
+        writeStripes.incrementAndGet(stripe(expense.getOwner()));
+        DailyTotals totals = null;
+        synchronized (entries) {
+            Entry entry = entries.get(expense.getOwner());
+            if (entry != null && entry.generation() >= writeGeneration) {
+                // Loaded after the write began, so it may already include it
+                entries.remove(expense.getOwner());
+            } else if (entry != null) {
+                totals = entry.totals();
+            }
+        }
+        if (totals != null) {
+            try {
+                totals.add(expense.getExpenseDate().toLocalDate(), expense.getCategory(), sign * expense.getAmountMinor(), sign);
+            } catch (IllegalStateException e) {
+                // Over the day limit: drop it, and the next read reports the failure
+                evict(expense.getOwner());
+            }
+        }
+    }
+
+    private void evictOverBudget() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            bytes += entry.totals().estimatedBytes();
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+            bytes -= iterator.next().totals().estimatedBytes();
+            iterator.remove();
+        }
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+
+    /** A loaded index and the write generation its load started at */
+    private record Entry(DailyTotals totals, long generation) {
+    }
+}
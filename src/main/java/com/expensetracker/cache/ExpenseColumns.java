@@ -0,0 +1,283 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.ExpenseStatsResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable column-oriented snapshot of one user's expenses, sorted by date.
+ *
+ * Amounts (in minor units) and dates are primitive arrays and category/payment values are
+ * dictionary-encoded, so range stats are a binary search plus a tight loop.
+ * Writes produce a patched copy rather than mutating in place, which keeps
+ * readers lock-free.
+ */
+public final class ExpenseColumns {
+
+    private final String[] ids;
+    private final long[] amounts;
+    private final long[] dates;
+    private final int[] categoryIds;
+    private final int[] paymentIds;
+    private final List<String> categories;
+    private final List<String> payments;
+
+    private ExpenseColumns(String[] ids, long[] amounts, long[] dates, int[] categoryIds, int[] paymentIds,
+                           List<String> categories, List<String> payments) {
+        this.ids = ids;
+        this.amounts = amounts;
+        this.dates = dates;
+        this.categoryIds = categoryIds;
+        this.paymentIds = paymentIds;
+        this.categories = categories;
+        this.payments = payments;
+    }
+
+    public static ExpenseColumns of(List<Expense> expenses) {
+        List<Expense> sorted = new ArrayList<>(expenses);
+        sorted.sort(Comparator.comparingLong(e -> toMillis(e.getExpenseDate())));
+
+        int size = sorted.size();
+        String[] ids = new String[size];
+        long[] amounts = new long[size];
+        long[] dates = new long[size];
+        int[] categoryIds = new int[size];
+        int[] paymentIds = new int[size];
+        List<String> categories = new ArrayList<>();
+        List<String> payments = new ArrayList<>();
+        Map<String, Integer> categoryLookup = new HashMap<>();
+        Map<String, Integer> paymentLookup = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Expense expense = sorted.get(i);
+            ids[i] = expense.getId();
+            amounts[i] = expense.getAmountMinor();
+            dates[i] = toMillis(expense.getExpenseDate());
+            categoryIds[i] = encode(expense.getCategory(), categories, categoryLookup);
+            paymentIds[i] = encode(expense.getPaymentType(), payments, paymentLookup);
+        }
+        return new ExpenseColumns(ids, amounts, dates, categoryIds, paymentIds, categories, payments);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns a copy with the expense inserted, or replaced if its id is already present.
+     */
+    public ExpenseColumns with(Expense expense) {
+        ExpenseColumns base = indexOf(expense.getId()) >= 0 ? without(expense.getId()) : this;
+        return base.insert(expense);
+    }
+
+    /**
+     * Returns a copy without the given expense, or this snapshot if it is not present.
+     */
+    public ExpenseColumns without(String expenseId) {
+        int index = indexOf(expenseId);
+        if (index < 0) {
+            return this;
+        }
+        int size = ids.length - 1;
+        String[] newIds = new String[size];
+        long[] newAmounts = new long[size];
+        long[] newDates = new long[size];
+        int[] newCategoryIds = new int[size];
+        int[] newPaymentIds = new int[size];
+        removeAt(ids, newIds, index, size);
+        removeAt(amounts, newAmounts, index, size);
+        removeAt(dates, newDates, index, size);
+        removeAt(categoryIds, newCategoryIds, index, size);
+        removeAt(paymentIds, newPaymentIds, index, size);
+        return new ExpenseColumns(newIds, newAmounts, newDates, newCategoryIds, newPaymentIds, categories, payments);
+    }
+
+    /**
+     * Same result as the Mongo aggregation in ExpenseService#getExpenseStats.
+     * Either bound may be null for an open range.
+     */
+    public ExpenseStatsResponse stats(LocalDateTime startDate, LocalDateTime endDate) {
+        int from = startDate != null ? lowerBound(toMillis(startDate)) : 0;
+        // An end before the start matches nothing, as in the aggregation
+        int to = Math.max(from, endDate != null ? upperBound(toMillis(endDate)) : ids.length);
+
+        int categoryCount = categories.size();
+        long[] categoryTotals = new long[categoryCount];
+        long[] categoryCounts = new long[categoryCount];
+        long total = 0;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+
+        for (int i = from; i < to; i++) {
+            long amount = amounts[i];
+            int category = categoryIds[i];
+            categoryTotals[category] += amount;
+            categoryCounts[category]++;
+            total += amount;
+            if (amount > max) {
+                max = amount;
+            }
+            if (amount < min) {
+                min = amount;
+            }
+        }
+
+        List<ExpenseStatsResponse.CategoryStats> categoryStats = new ArrayList<>();
+        for (int c = 0; c < categoryCount; c++) {
+            if (categoryCounts[c] == 0) {
+                continue;
+            }
+            categoryStats.add(ExpenseStatsResponse.CategoryStats.builder()
+                    ._id(categories.get(c))
+                    .totalAmount(Money.ofMinor(categoryTotals[c]))
+                    .count(categoryCounts[c])
+                    .avgAmount(Money.average(categoryTotals[c], categoryCounts[c]))
+                    .build());
+        }
+        categoryStats.sort(Comparator.comparing(ExpenseStatsResponse.CategoryStats::getTotalAmount).reversed());
+
+        long count = to - from;
+        ExpenseStatsResponse.OverallStats overallStats = count == 0
+                ? ExpenseStatsResponse.OverallStats.builder().build()
+                : ExpenseStatsResponse.OverallStats.builder()
+                        .totalExpenses(count)
+                        .totalAmount(Money.ofMinor(total))
+                        .avgAmount(Money.average(total, count))
+                        .maxAmount(Money.ofMinor(max))
+                        .minAmount(Money.ofMinor(min))
+                        .build();
+
+        return ExpenseStatsResponse.builder()
+                .categoryStats(categoryStats)
+                .overallStats(overallStats)
+                .build();
+    }
+
+    /**
+     * Rough heap footprint, used for the cache's byte budget.
+     */
+    public long estimatedBytes() {
+        // ids are 24-char hex strings: ~72 bytes each including headers and the array slot
+        // then a minor-unit amount, a date and two dictionary codes
+        long perRow = 72 + Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+        long dictionaries = (categories.size() + payments.size()) * 64L;
+        return 128 + perRow * ids.length + dictionaries;
+    }
+
+    static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private ExpenseColumns insert(Expense expense) {
+        List<String> newCategories = categories;
+        List<String> newPayments = payments;
+        int categoryId = categories.indexOf(expense.getCategory());
+        if (categoryId < 0) {
+            newCategories = new ArrayList<>(categories);
+            newCategories.add(expense.getCategory());
+            categoryId = newCategories.size() - 1;
+        }
+        int paymentId = payments.indexOf(expense.getPaymentType());
+        if (paymentId < 0) {
+            newPayments = new ArrayList<>(payments);
+            newPayments.add(expense.getPaymentType());
+            paymentId = newPayments.size() - 1;
+        }
+
+        long date = toMillis(expense.getExpenseDate());
+        int index = upperBound(date);
+        int size = ids.length + 1;
+        String[] newIds = new String[size];
+        long[] newAmounts = new long[size];
+        long[] newDates = new long[size];
+        int[] newCategoryIds = new int[size];
+        int[] newPaymentIds = new int[size];
+        insertAt(ids, newIds, index, expense.getId());
+        insertAt(amounts, newAmounts, index, expense.getAmountMinor());
+        insertAt(dates, newDates, index, date);
+        insertAt(categoryIds, newCategoryIds, index, categoryId);
+        insertAt(paymentIds, newPaymentIds, index, paymentId);
+        return new ExpenseColumns(newIds, newAmounts, newDates, newCategoryIds, newPaymentIds, newCategories, newPayments);
+    }
+
+    private int indexOf(String expenseId) {
+        if (expenseId == null) {
+            return -1;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (expenseId.equals(ids[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** First index with date >= key. */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = dates.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First index with date > key. */
+    private int upperBound(long key) {
+        int low = 0;
+        int high = dates.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int encode(String value, List<String> dictionary, Map<String, Integer> lookup) {
+        return lookup.computeIfAbsent(value, v -> {
+            dictionary.add(v);
+            return dictionary.size() - 1;
+        });
+    }
+
+    private static void removeAt(Object source, Object target, int index, int newLength) {
+        System.arraycopy(source, 0, target, 0, index);
+        System.arraycopy(source, index + 1, target, index, newLength - index);
+    }
+
+    private static void insertAt(String[] source, String[] target, int index, String value) {
+        System.arraycopy(source, 0, target, 0, index);
+        target[index] = value;
+        System.arraycopy(source, index, target, index + 1, source.length - index);
+    }
+
+    private static void insertAt(long[] source, long[] target, int index, long value) {
+        System.arraycopy(source, 0, target, 0, index);
+        target[index] = value;
+        System.arraycopy(source, index, target, index + 1, source.length - index);
+    }
+
+    private static void insertAt(int[] source, int[] target, int index, int value) {
+        System.arraycopy(source, 0, target, 0, index);
+        target[index] = value;
+        System.arraycopy(source, index, target, index + 1, source.length - index);
+    }
+}
@@ -0,0 +1,33 @@
+package com.expensetracker.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM transport for single-instance deployments and tests. Several buses
+ * sharing one instance behave like separate nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<InvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<InvalidationEvent> events) {
+        for (InvalidationEvent event : events) {
+            for (Consumer<InvalidationEvent> subscriber : subscribers) {
+                subscriber.accept(event);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.cache;
+
+/**
+ * Signals that cached state derived from a user's data is stale.
+ *
+ * Versions are monotonically increasing per publishing node, so consumers can
+ * ignore anything older than what they already applied. Delivery is
+ * at-least-once, so handling an event must be idempotent.
+ */
+public record InvalidationEvent(String userId, long version, String origin, long publishedAt) {
+}
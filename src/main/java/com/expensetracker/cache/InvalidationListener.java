@@ -0,0 +1,10 @@
+package com.expensetracker.cache;
+
+/**
+ * Callback for components that hold per-user state and need to drop it when
+ * another instance writes that user's data.
+ */
+public interface InvalidationListener {
+
+    void onInvalidate(InvalidationEvent event);
+}
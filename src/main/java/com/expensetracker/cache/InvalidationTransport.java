@@ -0,0 +1,14 @@
+package com.expensetracker.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moves invalidation events between application instances.
+ */
+public interface InvalidationTransport {
+
+    void publish(List<InvalidationEvent> events);
+
+    void subscribe(Consumer<InvalidationEvent> subscriber);
+}
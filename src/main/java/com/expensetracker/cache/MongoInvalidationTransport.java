@@ -0,0 +1,170 @@
+package com.expensetracker.cache;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Shares invalidation events between instances through a capped collection
+ * that every node tails. Works on standalone mongod, unlike change streams.
+ *
+ * Each event carries a sequence the server assigns on insert: an empty BSON
+ * timestamp in the document's leading fields, which mongod replaces with its
+ * own. It grows with insertion order whatever the publishers' clocks say.
+ * The tail starts after the newest event in the collection, and after a
+ * cursor failure it resumes after the last sequence it saw, so no event is
+ * lost while the capped collection still holds it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "mongo")
+public class MongoInvalidationTransport implements InvalidationTransport {
+
+    // Must stay among the first two fields, right after _id, for the server to fill it in
+    private static final String SEQUENCE = "seq";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.cache.invalidation.collection:cache_invalidations}")
+    private String collectionName;
+
+    @Value("${app.cache.invalidation.collection-size-bytes:8388608}")
+    private long collectionSizeBytes;
+
+    private final List<Consumer<InvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile boolean collectionReady;
+    private Thread tailer;
+
+    @Override
+    public void publish(List<InvalidationEvent> events) {
+        List<Document> documents = new ArrayList<>(events.size());
+        for (InvalidationEvent event : events) {
+            documents.add(new Document(SEQUENCE, new BsonTimestamp())
+                    .append("userId", event.userId())
+                    .append("version", event.version())
+                    .append("origin", event.origin())
+                    .append("publishedAt", event.publishedAt()));
+        }
+        collection().insertMany(documents, new InsertManyOptions().ordered(false));
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<InvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+        if (tailer == null) {
+            running = true;
+            tailer = new Thread(this::tail, "cache-invalidation-tailer");
+            tailer.setDaemon(true);
+            tailer.start();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    private void tail() {
+        BsonTimestamp resumeAfter = null;
+        while (running) {
+            if (resumeAfter == null) {
+                try {
+                    resumeAfter = latestSequence();
+                } catch (Exception e) {
+                    log.warn("Could not read the invalidation sequence, retrying: {}", e.getMessage());
+                    if (!pause()) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            try (MongoCursor<Document> cursor = collection()
+                    .find(Filters.gt(SEQUENCE, resumeAfter))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running) {
+                    Document document = cursor.tryNext();
+                    if (document == null) {
+                        if (cursor.getServerCursor() == null) {
+                            // A tailable cursor on an empty capped collection dies straight away
+                            break;
+                        }
+                        continue;
+                    }
+                    InvalidationEvent event = new InvalidationEvent(
+                            document.getString("userId"),
+                            document.getLong("version"),
+                            document.getString("origin"),
+                            document.getLong("publishedAt"));
+                    resumeAfter = document.get(SEQUENCE, BsonTimestamp.class);
+                    for (Consumer<InvalidationEvent> subscriber : subscribers) {
+                        subscriber.accept(event);
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation tail failed, restarting: {}", e.getMessage());
+            }
+            if (!pause()) {
+                return;
+            }
+        }
+    }
+
+    /** The newest event's sequence, or zero when the collection is empty */
+    private BsonTimestamp latestSequence() {
+        Document newest = collection().find().sort(new Document("$natural", -1)).limit(1).first();
+        BsonTimestamp sequence = newest != null ? newest.get(SEQUENCE, BsonTimestamp.class) : null;
+        return sequence != null ? sequence : new BsonTimestamp();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(1000);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        if (!collectionReady && !mongoTemplate.collectionExists(collectionName)) {
+            try {
+                mongoTemplate.createCollection(collectionName,
+                        CollectionOptions.empty().capped().size(collectionSizeBytes));
+            } catch (Exception e) {
+                // Another instance created it first
+                log.debug("Capped collection {} already created: {}", collectionName, e.getMessage());
+            }
+        }
+        collectionReady = true;
+        return mongoTemplate.getCollection(collectionName);
+    }
+}
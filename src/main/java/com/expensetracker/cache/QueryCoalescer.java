@@ -0,0 +1,77 @@
+package com.expensetracker.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Named single-flight groups for the expensive read paths, so duplicate
+ * requests from several tabs share one Mongo round trip.
+ *
+ * Each user's reads are keyed by a write generation that the write paths bump
+ * through {@link #onWrite}, so a read issued after a user's write never joins
+ * a flight that started before it. Generations are striped by user id like
+ * {@link DailyTotalsIndex}'s write counters; a bump only stops other users of
+ * the stripe from sharing with flights already running.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCoalescer implements InvalidationListener {
+
+    private static final int WRITE_STRIPES = 64;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    @Value("${app.cache.single-flight.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, SingleFlight<Object, Object>> flights = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(WRITE_STRIPES);
+
+    @PostConstruct
+    public void register() {
+        invalidationBus.addListener(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String name, String userId, Object key, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        SingleFlight<Object, Object> flight = flights.computeIfAbsent(name, n -> new SingleFlight<>());
+        List<Object> flightKey = Arrays.asList(userId, generations.get(stripe(userId)), key);
+        return (V) flight.execute(flightKey, (Supplier<Object>) loader);
+    }
+
+    /**
+     * Called once a write of the user's data has been stored: reads from now
+     * on start their own flights.
+     */
+    public void onWrite(String userId) {
+        if (userId != null) {
+            generations.incrementAndGet(stripe(userId));
+        }
+    }
+
+    @Override
+    public void onInvalidate(InvalidationEvent event) {
+        onWrite(event.userId());
+    }
+
+    public Map<String, SingleFlight<Object, Object>> getFlights() {
+        return Collections.unmodifiableMap(flights);
+    }
+
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+}
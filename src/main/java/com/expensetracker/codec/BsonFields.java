@@ -0,0 +1,148 @@
+package com.expensetracker.codec;
+
+import com.expensetracker.model.Money;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Field helpers shared by the entity codecs. They follow the conventions of
+ * Spring Data's converter so both paths read and write the same documents:
+ * null fields are omitted, String ids that are valid ObjectIds are stored as
+ * ObjectIds, and LocalDateTime is stored as a date in the system time zone.
+ */
+final class BsonFields {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private BsonFields() {
+    }
+
+    static Object toId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    static void writeId(BsonWriter writer, String id) {
+        if (id == null) {
+            return;
+        }
+        if (ObjectId.isValid(id)) {
+            writer.writeObjectId("_id", new ObjectId(id));
+        } else {
+            writer.writeString("_id", id);
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeLong(BsonWriter writer, String name, long value) {
+        writer.writeInt64(name, value);
+    }
+
+    static void writeInt(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeDate(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(ZONE).toInstant().toEpochMilli());
+        }
+    }
+
+    static String readId(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID:
+                return reader.readObjectId().toHexString();
+            case STRING:
+                return reader.readString();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Legacy amounts written by other clients may be whole numbers, so every numeric type is accepted.
+     */
+    static Double readDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE:
+                return reader.readDouble();
+            case INT32:
+                return (double) reader.readInt32();
+            case INT64:
+                return (double) reader.readInt64();
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue().doubleValue();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static Long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return (long) reader.readInt32();
+            case DOUBLE:
+                return (long) Math.rint(reader.readDouble());
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * The stored minor units, or the legacy double amount converted for
+     * documents the amount migration has not rewritten yet.
+     */
+    static long amountMinor(Long amountMinor, Double legacyAmount) {
+        if (amountMinor != null) {
+            return amountMinor;
+        }
+        return legacyAmount != null ? Money.minorFromLegacy(legacyAmount) : 0;
+    }
+
+    static Integer readInt(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static LocalDateTime readDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZONE);
+        }
+        reader.skipValue();
+        return null;
+    }
+}
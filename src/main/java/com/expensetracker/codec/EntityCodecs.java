@@ -0,0 +1,114 @@
+package com.expensetracker.codec;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Entity collections with the hand-written codecs registered, for the hot
+ * read and write paths that skip Spring Data's reflective converter.
+ *
+ * Queries are still built with {@link Query} and mapped by Spring's
+ * {@link QueryMapper}, so property names, ids and dates translate exactly as
+ * they do for the repositories. The registry is applied per collection rather
+ * than on the client, leaving every other MongoTemplate path untouched.
+ */
+@Component
+public class EntityCodecs {
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+    private final CodecRegistry registry;
+
+    @Value("${app.storage.codecs.enabled:false}")
+    private boolean enabled;
+
+    public EntityCodecs(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new ExpenseCodec(), new ExpenseResponseCodec(), new UserCodec()),
+                mongoTemplate.getDb().getCodecRegistry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the query against the entity's collection, decoding each document
+     * as the given result type (the entity itself or a registered projection).
+     */
+    public <T> List<T> find(Query query, Class<?> entityType, Class<T> resultType) {
+        return iterable(query, entityType, resultType).into(new ArrayList<>());
+    }
+
+    /**
+     * Streams the results to the consumer one document at a time, closing the
+     * cursor afterwards. Works with {@link org.bson.RawBsonDocument} as the
+     * result type regardless of whether the codecs are enabled.
+     */
+    public <T> void forEach(Query query, Class<?> entityType, Class<T> resultType, Consumer<? super T> consumer) {
+        iterable(query, entityType, resultType).forEach(consumer);
+    }
+
+    public <T> T findOne(Query query, Class<T> entityType) {
+        return collection(entityType, entityType)
+                .find(queryMapper.getMappedObject(query.getQueryObject(), persistentEntity(entityType)))
+                .first();
+    }
+
+    public <T> void insert(List<T> entities, Class<T> entityType) {
+        if (!entities.isEmpty()) {
+            collection(entityType, entityType).insertMany(entities);
+        }
+    }
+
+    /**
+     * Whole-document upsert by id, the same write a repository save of an existing entity makes.
+     */
+    public <T> void replace(String id, T entity, Class<T> entityType) {
+        collection(entityType, entityType).replaceOne(Filters.eq("_id", BsonFields.toId(id)), entity,
+                new ReplaceOptions().upsert(true));
+    }
+
+    private <T> FindIterable<T> iterable(Query query, Class<?> entityType, Class<T> resultType) {
+        MongoPersistentEntity<?> entity = persistentEntity(entityType);
+        FindIterable<T> results = collection(entityType, resultType)
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+        if (!query.getFieldsObject().isEmpty()) {
+            results.projection(queryMapper.getMappedFields(query.getFieldsObject(), entity));
+        }
+        if (query.getSkip() > 0) {
+            results.skip((int) query.getSkip());
+        }
+        if (query.isLimited()) {
+            results.limit(query.getLimit());
+        }
+        return results;
+    }
+
+    private <T> MongoCollection<T> collection(Class<?> entityType, Class<T> resultType) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityType))
+                .withCodecRegistry(registry)
+                .withDocumentClass(resultType);
+    }
+
+    private MongoPersistentEntity<?> persistentEntity(Class<?> entityType) {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+}
@@ -0,0 +1,101 @@
+package com.expensetracker.codec;
+
+import com.expensetracker.model.Expense;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Hand-written codec for {@link Expense}, writing the same document the
+ * mapping converter does without reflection, boxing through the builder, or
+ * an intermediate {@link org.bson.Document}.
+ */
+public class ExpenseCodec implements Codec<Expense> {
+
+    private static final ExpenseCodec INSTANCE = new ExpenseCodec();
+
+    /**
+     * The expense as the raw document it is stored as, for stores that do not read raw BSON.
+     */
+    public static RawBsonDocument toRawDocument(Expense expense) {
+        return new RawBsonDocument(expense, INSTANCE);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Expense expense, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, expense.getId());
+        BsonFields.writeString(writer, "name", expense.getName());
+        BsonFields.writeLong(writer, "amountMinor", expense.getAmountMinor());
+        // Kept for rollback, as in Expense#getAmount
+        writer.writeDouble("amount", expense.getAmount());
+        BsonFields.writeDate(writer, "expenseDate", expense.getExpenseDate());
+        BsonFields.writeString(writer, "category", expense.getCategory());
+        BsonFields.writeString(writer, "paymentType", expense.getPaymentType());
+        BsonFields.writeString(writer, "comment", expense.getComment());
+        BsonFields.writeString(writer, "owner", expense.getOwner());
+        BsonFields.writeDate(writer, "createdAt", expense.getCreatedAt());
+        BsonFields.writeDate(writer, "updatedAt", expense.getUpdatedAt());
+        writer.writeString("_class", Expense.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Expense decode(BsonReader reader, DecoderContext decoderContext) {
+        Expense expense = new Expense();
+        Long amountMinor = null;
+        Double legacyAmount = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    expense.setId(BsonFields.readId(reader));
+                    break;
+                case "name":
+                    expense.setName(BsonFields.readString(reader));
+                    break;
+                case "amountMinor":
+                    amountMinor = BsonFields.readLong(reader);
+                    break;
+                case "amount":
+                    legacyAmount = BsonFields.readDouble(reader);
+                    break;
+                case "expenseDate":
+                    expense.setExpenseDate(BsonFields.readDate(reader));
+                    break;
+                case "category":
+                    expense.setCategory(BsonFields.readString(reader));
+                    break;
+                case "paymentType":
+                    expense.setPaymentType(BsonFields.readString(reader));
+                    break;
+                case "comment":
+                    expense.setComment(BsonFields.readString(reader));
+                    break;
+                case "owner":
+                    expense.setOwner(BsonFields.readString(reader));
+                    break;
+                case "createdAt":
+                    expense.setCreatedAt(BsonFields.readDate(reader));
+                    break;
+                case "updatedAt":
+                    expense.setUpdatedAt(BsonFields.readDate(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        expense.setAmountMinor(BsonFields.amountMinor(amountMinor, legacyAmount));
+        return expense;
+    }
+
+    @Override
+    public Class<Expense> getEncoderClass() {
+        return Expense.class;
+    }
+}
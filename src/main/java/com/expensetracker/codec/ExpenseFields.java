@@ -0,0 +1,82 @@
+package com.expensetracker.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mutable holder for the fields of one stored expense document. Readers that
+ * emit something other than an {@link com.expensetracker.model.Expense} fill
+ * it from BSON and can reuse it across rows.
+ */
+final class ExpenseFields {
+
+    String id;
+    String name;
+    long amountMinor;
+    LocalDateTime expenseDate;
+    String category;
+    String paymentType;
+    String comment;
+    String owner;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+
+    void read(BsonReader reader) {
+        id = null;
+        name = null;
+        Long storedMinor = null;
+        Double legacyAmount = null;
+        expenseDate = null;
+        category = null;
+        paymentType = null;
+        comment = null;
+        owner = null;
+        createdAt = null;
+        updatedAt = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    id = BsonFields.readId(reader);
+                    break;
+                case "name":
+                    name = BsonFields.readString(reader);
+                    break;
+                case "amountMinor":
+                    storedMinor = BsonFields.readLong(reader);
+                    break;
+                case "amount":
+                    legacyAmount = BsonFields.readDouble(reader);
+                    break;
+                case "expenseDate":
+                    expenseDate = BsonFields.readDate(reader);
+                    break;
+                case "category":
+                    category = BsonFields.readString(reader);
+                    break;
+                case "paymentType":
+                    paymentType = BsonFields.readString(reader);
+                    break;
+                case "comment":
+                    comment = BsonFields.readString(reader);
+                    break;
+                case "owner":
+                    owner = BsonFields.readString(reader);
+                    break;
+                case "createdAt":
+                    createdAt = BsonFields.readDate(reader);
+                    break;
+                case "updatedAt":
+                    updatedAt = BsonFields.readDate(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        amountMinor = BsonFields.amountMinor(storedMinor, legacyAmount);
+    }
+}
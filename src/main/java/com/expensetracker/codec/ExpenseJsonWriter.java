@@ -0,0 +1,86 @@
+package com.expensetracker.codec;
+
+import com.expensetracker.dto.ExpenseDateFormat;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonBinaryReader;
+import org.bson.RawBsonDocument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Writes raw expense documents as the JSON the list endpoints return, an
+ * {@code ApiResponse} wrapping a list of {@link ExpenseResponse}, without
+ * decoding to either object.
+ *
+ * Field names, field order, null handling and date formats match what
+ * Jackson produces for those classes with Spring Boot's defaults.
+ */
+public class ExpenseJsonWriter implements Consumer<RawBsonDocument> {
+
+    // Jackson's LocalDateTime format when dates are not written as timestamps
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final JsonGenerator generator;
+    private final ExpenseFields fields = new ExpenseFields();
+
+    public ExpenseJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    public void writeStart(int statusCode) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("statusCode", statusCode);
+        generator.writeArrayFieldStart("data");
+    }
+
+    @Override
+    public void accept(RawBsonDocument document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            fields.read(reader);
+        }
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("_id", fields.id);
+            generator.writeStringField("name", fields.name);
+            generator.writeNumberField("amount", Money.ofMinor(fields.amountMinor).toDouble());
+            generator.writeStringField("expense_date", ExpenseDateFormat.format(fields.expenseDate));
+            generator.writeStringField("expense_category", fields.category);
+            generator.writeStringField("payment", fields.paymentType);
+            generator.writeStringField("comment", fields.comment);
+            generator.writeStringField("owner", fields.owner);
+            generator.writeStringField("createdAt", format(fields.createdAt, TIMESTAMP_FORMATTER));
+            generator.writeStringField("updatedAt", format(fields.updatedAt, TIMESTAMP_FORMATTER));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeEnd(String message) throws IOException {
+        generator.writeEndArray();
+        generator.writeStringField("message", message);
+        generator.writeBooleanField("success", true);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Ends a response whose rows could not all be written: the rows so far,
+     * then success false with the message.
+     */
+    public void writeFailure(String message) throws IOException {
+        generator.writeEndArray();
+        generator.writeStringField("message", message);
+        generator.writeBooleanField("success", false);
+        generator.writeEndObject();
+    }
+
+    private static String format(LocalDateTime value, DateTimeFormatter formatter) {
+        return value != null ? value.format(formatter) : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.expensetracker.codec;
+
+import com.expensetracker.dto.ExpenseDateFormat;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Money;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Decodes a stored expense document straight into the API response, skipping
+ * the intermediate {@link com.expensetracker.model.Expense}. Read-only: the
+ * response shape is never written back.
+ */
+public class ExpenseResponseCodec implements Codec<ExpenseResponse> {
+
+    @Override
+    public ExpenseResponse decode(BsonReader reader, DecoderContext decoderContext) {
+        ExpenseFields fields = new ExpenseFields();
+        fields.read(reader);
+        return new ExpenseResponse(fields.id, fields.name, Money.ofMinor(fields.amountMinor), ExpenseDateFormat.format(fields.expenseDate),
+                fields.category, fields.paymentType, fields.comment, fields.owner, fields.createdAt, fields.updatedAt);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ExpenseResponse value, EncoderContext encoderContext) {
+        throw new UnsupportedOperationException("ExpenseResponse is a read-only projection");
+    }
+
+    @Override
+    public Class<ExpenseResponse> getEncoderClass() {
+        return ExpenseResponse.class;
+    }
+}
@@ -0,0 +1,112 @@
+package com.expensetracker.codec;
+
+import com.expensetracker.model.User;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written codec for {@link User}, matching the mapping converter's document.
+ */
+public class UserCodec implements Codec<User> {
+
+    @Override
+    public void encode(BsonWriter writer, User user, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, user.getId());
+        BsonFields.writeString(writer, "username", user.getUsername());
+        BsonFields.writeString(writer, "email", user.getEmail());
+        BsonFields.writeString(writer, "name", user.getName());
+        BsonFields.writeString(writer, "password", user.getPassword());
+        BsonFields.writeString(writer, "refreshToken", user.getRefreshToken());
+        BsonFields.writeDate(writer, "userFirstSignUp", user.getUserFirstSignUp());
+        BsonFields.writeDate(writer, "lastLoginDate", user.getLastLoginDate());
+        BsonFields.writeInt(writer, "expenseLogged", user.getExpenseLogged());
+        if (user.getCategories() != null) {
+            writer.writeStartArray("categories");
+            for (String category : user.getCategories()) {
+                writer.writeString(category);
+            }
+            writer.writeEndArray();
+        }
+        BsonFields.writeDate(writer, "createdAt", user.getCreatedAt());
+        BsonFields.writeDate(writer, "updatedAt", user.getUpdatedAt());
+        writer.writeString("_class", User.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public User decode(BsonReader reader, DecoderContext decoderContext) {
+        User user = new User();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    user.setId(BsonFields.readId(reader));
+                    break;
+                case "username":
+                    user.setUsername(BsonFields.readString(reader));
+                    break;
+                case "email":
+                    user.setEmail(BsonFields.readString(reader));
+                    break;
+                case "name":
+                    user.setName(BsonFields.readString(reader));
+                    break;
+                case "password":
+                    user.setPassword(BsonFields.readString(reader));
+                    break;
+                case "refreshToken":
+                    user.setRefreshToken(BsonFields.readString(reader));
+                    break;
+                case "userFirstSignUp":
+                    user.setUserFirstSignUp(BsonFields.readDate(reader));
+                    break;
+                case "lastLoginDate":
+                    user.setLastLoginDate(BsonFields.readDate(reader));
+                    break;
+                case "expenseLogged":
+                    user.setExpenseLogged(BsonFields.readInt(reader));
+                    break;
+                case "categories":
+                    user.setCategories(readStrings(reader));
+                    break;
+                case "createdAt":
+                    user.setCreatedAt(BsonFields.readDate(reader));
+                    break;
+                case "updatedAt":
+                    user.setUpdatedAt(BsonFields.readDate(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return user;
+    }
+
+    @Override
+    public Class<User> getEncoderClass() {
+        return User.class;
+    }
+
+    private static List<String> readStrings(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(BsonFields.readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+}
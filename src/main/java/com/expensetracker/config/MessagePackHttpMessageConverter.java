@@ -0,0 +1,15 @@
+package com.expensetracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+/**
+ * Jackson converter for MessagePack bodies. The mapper must be backed by a
+ * MessagePackFactory; see {@link WireFormatConfig}.
+ */
+public class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public MessagePackHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, WireFormatConfig.MSGPACK, WireFormatConfig.MSGPACK_ALTERNATE);
+    }
+}
@@ -1,10 +1,31 @@
 package com.expensetracker.config;
 
+import com.expensetracker.metrics.SlowQueryLog;
+import com.expensetracker.metrics.UserAccounting;
+import com.expensetracker.profiling.JfrCommandListener;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
     // Enable auditing for @CreatedDate and @LastModifiedDate annotations
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer commandListeners(SlowQueryLog slowQueryLog, UserAccounting userAccounting,
+                                                                 JfrCommandListener jfrCommandListener,
+                                                                 ObservationRegistry observationRegistry) {
+        // The context provider hands each command the current observation, so its span nests under the request's
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry))
+                .addCommandListener(slowQueryLog)
+                .addCommandListener(userAccounting)
+                .addCommandListener(jfrCommandListener);
+    }
 }
@@ -0,0 +1,12 @@
+package com.expensetracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enable @Scheduled background jobs: account purges, expense count reconciliation and the
+    // accounting flush. spring.task.scheduling.pool.size gives each its own thread, so a long
+    // purge does not hold up the others.
+}
@@ -1,11 +1,15 @@
 package com.expensetracker.config;
 
+import com.expensetracker.metrics.TimedPasswordEncoder;
+import com.expensetracker.security.AdminAccess;
 import com.expensetracker.security.CurrentUserArgumentResolver;
 import com.expensetracker.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -27,6 +31,7 @@ public class SecurityConfig implements WebMvcConfigurer {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CurrentUserArgumentResolver currentUserArgumentResolver;
+    private final AdminAccess adminAccess;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -40,6 +45,10 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .requestMatchers("/api/v1/users/refresh-token").permitAll()
                 .requestMatchers("/api/v1/users/app-version").permitAll()
                 .requestMatchers("/api/v1/health/**").permitAll()
+                // Probes and the Prometheus scrape; the other actuator endpoints are for admins
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").access((authentication, context) -> new AuthorizationDecision(
+                        authentication.get().isAuthenticated() && adminAccess.isAdmin(authentication.get().getName())))
                 // Static resources
                 .requestMatchers("/", "/index.html", "/favicon.ico").permitAll()
                 .requestMatchers("/*.js", "/*.css", "/*.png", "/*.jpg", "/*.svg", "/*.ico", "/*.woff", "/*.woff2", "/*.ttf").permitAll()
@@ -56,8 +65,8 @@ public class SecurityConfig implements WebMvcConfigurer {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(10), meterRegistry);
     }
 
     @Override
@@ -0,0 +1,96 @@
+package com.expensetracker.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary alternatives to JSON for every API payload, picked by Accept and
+ * Content-Type: CBOR, Smile and MessagePack. Each format uses a copy of the
+ * application's ObjectMapper, so the envelope, field names and date handling
+ * are the same as JSON. JSON stays first and remains the default.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.api.binary-formats.enabled", havingValue = "true", matchIfMissing = true)
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType MSGPACK = new MediaType("application", "x-msgpack");
+    public static final MediaType MSGPACK_ALTERNATE = new MediaType("application", "msgpack");
+
+    private static final List<MediaType> BINARY_TYPES =
+            List.of(MediaType.APPLICATION_CBOR, SMILE, MSGPACK, MSGPACK_ALTERNATE);
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers its own CBOR and Smile converters on a default mapper; ours take their place
+        replaceOrAdd(converters, MappingJackson2CborHttpMessageConverter.class,
+                new MappingJackson2CborHttpMessageConverter(mapperFor(objectMapper, new CBORFactory())));
+        replaceOrAdd(converters, MappingJackson2SmileHttpMessageConverter.class,
+                new MappingJackson2SmileHttpMessageConverter(mapperFor(objectMapper, new SmileFactory())));
+        converters.add(new MessagePackHttpMessageConverter(mapperFor(objectMapper, new MessagePackFactory())));
+    }
+
+    private static void replaceOrAdd(List<HttpMessageConverter<?>> converters,
+                                     Class<?> type, HttpMessageConverter<?> replacement) {
+        boolean replaced = false;
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                converters.set(i, replacement);
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            converters.add(replacement);
+        }
+    }
+
+    /**
+     * The application mapper's modules and features on top of another format's factory.
+     */
+    public static ObjectMapper mapperFor(ObjectMapper base, JsonFactory factory) {
+        return base.copyWith(factory);
+    }
+
+    /**
+     * Whether a request with this Accept header gets JSON, i.e. no binary
+     * format is preferred over it. Used by handlers that write JSON themselves.
+     */
+    public static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (BINARY_TYPES.stream().anyMatch(type::equalsTypeAndSubtype)) {
+                return false;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
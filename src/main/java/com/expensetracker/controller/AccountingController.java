@@ -0,0 +1,40 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.metrics.UserAccounting;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/accounting")
+@RequiredArgsConstructor
+public class AccountingController {
+
+    private final UserAccounting userAccounting;
+    private final AdminAccess adminAccess;
+
+    @GetMapping("/heaviest-users")
+    public ResponseEntity<ApiResponse<UserAccounting.Ranking>> getHeaviestUsers(
+            @CurrentUser String userId,
+            @RequestParam(defaultValue = "mongo-time") String by,
+            @RequestParam(defaultValue = "total") String window,
+            @RequestParam(defaultValue = "20") int limit) {
+        adminAccess.check(userId);
+        return ResponseEntity.ok(ApiResponse.success(userAccounting.heaviest(by, window, Math.max(1, limit)),
+                "Heaviest users fetched"));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Void>> reset(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        userAccounting.reset();
+        return ResponseEntity.ok(ApiResponse.success(null, "User accounting reset"));
+    }
+}
@@ -1,24 +1,40 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.codec.ExpenseJsonWriter;
+import com.expensetracker.config.WireFormatConfig;
 import com.expensetracker.dto.*;
 import com.expensetracker.security.CurrentUser;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.RawBsonDocument;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/v1/expenses")
 @RequiredArgsConstructor
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getAllExpenses(
@@ -29,8 +45,16 @@ public class ExpenseController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "expenseDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortType) {
+            @RequestParam(defaultValue = "desc") String sortType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
         
+        if (expenseService.canStreamRawJson() && WireFormatConfig.acceptsJson(accept)) {
+            streamJson(response, "Expenses fetched successfully", rows -> expenseService.streamExpenses(
+                    userId, page, limit, category, startDate, endDate, sortBy, sortType, rows));
+            return null;
+        }
+
         List<ExpenseResponse> expenses = expenseService.getAllExpenses(
                 userId, page, limit, category, startDate, endDate, sortBy, sortType);
         
@@ -40,11 +64,14 @@ public class ExpenseController {
     @PostMapping
     public ResponseEntity<ApiResponse<ExpenseResponse>> createExpense(
             @CurrentUser String userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody ExpenseRequest request) {
         
-        ExpenseResponse expense = expenseService.createExpense(userId, request);
+        IdempotencyService.Result<ExpenseResponse> expense = idempotencyService.execute(userId, idempotencyKey,
+                "create", request, ExpenseResponse.class, () -> expenseService.createExpense(userId, request));
         return ResponseEntity.status(201)
-                .body(ApiResponse.success(200, expense, "Expense created successfully"));
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(expense.replayed()))
+                .body(ApiResponse.success(200, expense.value(), "Expense created successfully"));
     }
 
     @GetMapping("/{expenseId}")
@@ -85,22 +112,86 @@ public class ExpenseController {
         return ResponseEntity.ok(ApiResponse.success(stats, "Expense statistics fetched successfully"));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<SpendingSummaryResponse>> getSpendingSummary(
+            @CurrentUser String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        SpendingSummaryResponse summary = expenseService.getSpendingSummary(userId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(summary, "Spending summary fetched successfully"));
+    }
+
+    @GetMapping("/summary/rolling")
+    public ResponseEntity<ApiResponse<List<SpendingSummaryResponse>>> getRollingSpending(
+            @CurrentUser String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "7") Integer windowDays,
+            @RequestParam(defaultValue = "30") Integer points) {
+        
+        List<SpendingSummaryResponse> windows = expenseService.getRollingSpending(userId, endDate, windowDays, points);
+        return ResponseEntity.ok(ApiResponse.success(windows, "Rolling spending fetched successfully"));
+    }
+
     @PostMapping("/import")
     public ResponseEntity<ApiResponse<Map<String, Integer>>> importExpenses(
             @CurrentUser String userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody ImportExpensesRequest request) {
         
-        int count = expenseService.importExpenses(userId, request);
+        IdempotencyService.Result<Integer> count = idempotencyService.execute(userId, idempotencyKey,
+                "import", request, Integer.class, () -> expenseService.importExpenses(userId, request));
         return ResponseEntity.status(201)
-                .body(ApiResponse.success(200, Map.of("count", count), "Expenses imported successfully"));
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(count.replayed()))
+                .body(ApiResponse.success(200, Map.of("count", count.value()), "Expenses imported successfully"));
     }
 
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getDashboardExpenses(
             @CurrentUser String userId,
-            @RequestParam(required = false) String timeFilter) {
+            @RequestParam(required = false) String timeFilter,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
         
+        if (expenseService.canStreamRawJson() && WireFormatConfig.acceptsJson(accept)) {
+            streamJson(response, "Dashboard expenses retrieved successfully",
+                    rows -> expenseService.streamDashboardExpenses(userId, timeFilter, rows));
+            return null;
+        }
+
         List<ExpenseResponse> expenses = expenseService.getDashboardExpenses(userId, timeFilter);
         return ResponseEntity.ok(ApiResponse.success(expenses, "Dashboard expenses retrieved successfully"));
     }
+
+    /**
+     * Writes the list response straight from raw BSON to the servlet output,
+     * byte-for-byte the JSON the ApiResponse path produces. Returning null from
+     * the handler afterwards tells Spring the response has been handled.
+     *
+     * If the query fails before any of the body has been sent, the partial body
+     * is discarded and the exception goes to the usual handler. Once the 200 is
+     * on the wire, the document is ended with success false and the error
+     * message instead of being cut off.
+     */
+    private void streamJson(HttpServletResponse response, String message,
+                            Consumer<Consumer<RawBsonDocument>> query) throws IOException {
+        response.setStatus(200);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        ExpenseJsonWriter writer = new ExpenseJsonWriter(generator);
+        try {
+            writer.writeStart(200);
+            query.accept(writer);
+            writer.writeEnd(message);
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                // The generator's own buffer is dropped with it
+                response.resetBuffer();
+                throw e;
+            }
+            log.error("Streaming expenses failed after the response was committed", e);
+            writer.writeFailure("Failed to fetch expenses");
+        }
+        generator.close();
+    }
 }
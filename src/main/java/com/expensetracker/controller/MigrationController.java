@@ -0,0 +1,67 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.migration.MigrationCheckpoint;
+import com.expensetracker.migration.MigrationRunner;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/migrations")
+@RequiredArgsConstructor
+public class MigrationController {
+
+    private final MigrationRunner migrationRunner;
+    private final AdminAccess adminAccess;
+
+    /**
+     * Checkpoints of all migrations, or with dryRun=true the latest dry run's report.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<MigrationCheckpoint>>> getStatus(
+            @CurrentUser String userId,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        adminAccess.check(userId);
+        if (dryRun) {
+            return ResponseEntity.ok(ApiResponse.success(migrationRunner.dryRunReport(), "Dry run report fetched successfully"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(migrationRunner.status(), "Migration status fetched successfully"));
+    }
+
+    /**
+     * Starts or resumes pending migrations in the background.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<List<MigrationCheckpoint>>> run(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        if (!migrationRunner.start(false)) {
+            throw new ApiException(409, "Migrations are already running");
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success(202, migrationRunner.status(), "Migrations started"));
+    }
+
+    /**
+     * Starts a scan of pending documents in the background; GET with dryRun=true reports what a run would change.
+     */
+    @PostMapping("/dry-run")
+    public ResponseEntity<ApiResponse<List<MigrationCheckpoint>>> dryRun(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        if (!migrationRunner.start(true)) {
+            throw new ApiException(409, "Migrations are already running");
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success(202, migrationRunner.dryRunReport(), "Dry run started"));
+    }
+
+    @PostMapping("/pause")
+    public ResponseEntity<ApiResponse<List<MigrationCheckpoint>>> pause(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        migrationRunner.pause();
+        return ResponseEntity.ok(ApiResponse.success(migrationRunner.status(), "Migrations will pause after the current batch"));
+    }
+}
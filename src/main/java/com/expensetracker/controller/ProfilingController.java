@@ -0,0 +1,49 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.profiling.FlightRecorderService;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/v1/admin/profiling")
+@RequiredArgsConstructor
+public class ProfilingController {
+
+    private final FlightRecorderService flightRecorderService;
+    private final AdminAccess adminAccess;
+
+    /**
+     * Records for the given number of seconds, then answers with the .jfr
+     * file, to open in JDK Mission Control or with the jfr tool.
+     */
+    @PostMapping("/recording")
+    public void record(@CurrentUser String userId,
+                       @RequestParam(defaultValue = "30") long seconds,
+                       @RequestParam(defaultValue = "profile") String settings,
+                       HttpServletResponse response) throws IOException {
+        adminAccess.check(userId);
+        Path file = flightRecorderService.record(seconds, settings);
+        try {
+            response.setStatus(200);
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(Files.size(file));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"expense-tracker-" + System.currentTimeMillis() + ".jfr\"");
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.dto.ReconciliationReport;
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import com.expensetracker.service.ExpenseCountReconciler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ExpenseCountReconciler reconciler;
+    private final AdminAccess adminAccess;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<ReconciliationReport>> getLastReport(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        return ResponseEntity.ok(ApiResponse.success(reconciler.getLastReport(), "Last reconciliation report fetched"));
+    }
+
+    /**
+     * Starts a run in the background; its report replaces the last one when it finishes.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<ReconciliationReport>> run(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        if (!reconciler.start()) {
+            throw new ApiException(409, "Reconciliation is already running");
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success(202, reconciler.getLastReport(), "Reconciliation started"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.metrics.SlowQueryLog;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/slow-queries")
+@RequiredArgsConstructor
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+    private final AdminAccess adminAccess;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<SlowQueryLog.Report>> getSlowQueries(
+            @CurrentUser String userId,
+            @RequestParam(defaultValue = "50") int limit) {
+        adminAccess.check(userId);
+        return ResponseEntity.ok(ApiResponse.success(slowQueryLog.report(Math.max(1, limit)), "Slow queries fetched"));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Void>> clear(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        slowQueryLog.clear();
+        return ResponseEntity.ok(ApiResponse.success(null, "Slow query log cleared"));
+    }
+}
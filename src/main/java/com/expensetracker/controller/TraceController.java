@@ -0,0 +1,50 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ApiResponse;
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.security.AdminAccess;
+import com.expensetracker.security.CurrentUser;
+import com.expensetracker.tracing.InMemorySpanExporter;
+import com.expensetracker.tracing.RecordedSpan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/traces")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final ObjectProvider<InMemorySpanExporter> spanExporter;
+    private final AdminAccess adminAccess;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<RecordedSpan>>> getSpans(
+            @CurrentUser String userId,
+            @RequestParam(required = false) String traceId) {
+        adminAccess.check(userId);
+        return ResponseEntity.ok(ApiResponse.success(exporter().getSpans(traceId), "Spans fetched"));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Void>> reset(@CurrentUser String userId) {
+        adminAccess.check(userId);
+        exporter().reset();
+        return ResponseEntity.ok(ApiResponse.success(null, "Spans cleared"));
+    }
+
+    private InMemorySpanExporter exporter() {
+        InMemorySpanExporter exporter = spanExporter.getIfAvailable();
+        if (exporter == null) {
+            throw new ApiException(404, "Spans are only kept with app.tracing.exporter=memory");
+        }
+        return exporter;
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@code expense_date} format of {@link ExpenseResponse}, e.g. "Tue Mar 05 2024".
+ *
+ * The text depends only on the calendar day, and the rows of a page share a
+ * handful of days, so formatted strings are kept in a small direct-mapped
+ * cache keyed by epoch day. Entries are immutable; a racing write only costs
+ * a repeated format.
+ */
+public final class ExpenseDateFormat {
+
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
+
+    // Power of two: almost three years of distinct days before two collide
+    private static final int CACHE_SIZE = 1024;
+
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+    private ExpenseDateFormat() {
+    }
+
+    public static String format(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        long epochDay = dateTime.toLocalDate().toEpochDay();
+        int slot = (int) (epochDay & (CACHE_SIZE - 1));
+        Entry entry = CACHE[slot];
+        if (entry != null && entry.epochDay == epochDay) {
+            return entry.text;
+        }
+        String text = dateTime.format(FORMATTER);
+        CACHE[slot] = new Entry(epochDay, text);
+        return text;
+    }
+
+    private static final class Entry {
+
+        private final long epochDay;
+        private final String text;
+
+        private Entry(long epochDay, String text) {
+            this.epochDay = epochDay;
+            this.text = text;
+        }
+    }
+}
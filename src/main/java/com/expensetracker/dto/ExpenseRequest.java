@@ -1,6 +1,6 @@
 package com.expensetracker.dto;
 
-import jakarta.validation.constraints.Min;
+import com.expensetracker.model.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -20,8 +20,7 @@ public class ExpenseRequest {
     private String name;
 
     @NotNull(message = "Amount is required")
-    @Min(value = 0, message = "Amount must be greater than 0")
-    private Double amount;
+    private Money amount;
 
     private LocalDateTime expenseDate;
 
@@ -1,5 +1,6 @@
 package com.expensetracker.dto;
 
+import com.expensetracker.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +16,7 @@ public class ExpenseResponse {
 
     private String _id;
     private String name;
-    private Double amount;
+    private Money amount;
     private String expense_date;
     private String expense_category;
     private String payment;
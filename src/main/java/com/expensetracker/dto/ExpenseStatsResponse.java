@@ -1,5 +1,6 @@
 package com.expensetracker.dto;
 
+import com.expensetracker.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,8 +23,9 @@ public class ExpenseStatsResponse {
     @AllArgsConstructor
     public static class CategoryStats {
         private String _id;
-        private Double totalAmount;
+        private Money totalAmount;
         private Long count;
+        /** Unrounded, so not a {@link Money} */
         private Double avgAmount;
     }
 
@@ -33,9 +35,9 @@ public class ExpenseStatsResponse {
     @AllArgsConstructor
     public static class OverallStats {
         private Long totalExpenses;
-        private Double totalAmount;
+        private Money totalAmount;
         private Double avgAmount;
-        private Double maxAmount;
-        private Double minAmount;
+        private Money maxAmount;
+        private Money minAmount;
     }
 }
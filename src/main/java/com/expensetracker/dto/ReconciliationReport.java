@@ -0,0 +1,24 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private long usersChecked;
+    private long mismatched;
+    private long repaired;
+    /** Sum of |stored - actual| over mismatched users */
+    private long totalDrift;
+    private long maxDrift;
+    private long durationMs;
+    private LocalDateTime finishedAt;
+}
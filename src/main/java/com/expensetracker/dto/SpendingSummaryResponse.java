@@ -0,0 +1,33 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingSummaryResponse {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Money totalAmount;
+    private Long count;
+    private List<CategoryTotal> categoryTotals;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotal {
+        private String _id;
+        private Money totalAmount;
+        private Long count;
+    }
+}
@@ -4,6 +4,7 @@ import com.expensetracker.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,13 +19,27 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ApiResponse<Object>> handleApiException(ApiException ex) {
-        log.error("API Exception: {} - Status: {}", ex.getMessage(), ex.getStatusCode());
-        
+        // Client errors are routine (bad input, expired tokens) and rate-limited in logback-spring.xml
+        if (ex.getStatusCode() >= 500) {
+            log.error("API Exception: {} - Status: {}", ex.getMessage(), ex.getStatusCode());
+        } else {
+            log.warn("API Exception: {} - Status: {}", ex.getMessage(), ex.getStatusCode());
+        }
+
         return ResponseEntity
                 .status(ex.getStatusCode())
                 .body(ApiResponse.error(ex.getStatusCode(), ex.getMessage()));
     }
 
+    @ExceptionHandler(WriteInProgressException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleWriteInProgress(WriteInProgressException ex) {
+        log.warn("Write still in progress: {} - Id: {}", ex.getMessage(), ex.getId());
+
+        return ResponseEntity
+                .status(ex.getStatusCode())
+                .body(ApiResponse.success(ex.getStatusCode(), Map.of("id", ex.getId()), ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -36,7 +51,7 @@ public class GlobalExceptionHandler {
             errors.put(fieldName, errorMessage);
         });
 
-        log.error("Validation error: {}", errors);
+        log.warn("Validation error: {}", errors);
         
         ApiResponse<Map<String, String>> response = ApiResponse.<Map<String, String>>builder()
                 .statusCode(400)
@@ -48,6 +63,16 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleUnreadableBody(HttpMessageNotReadableException ex) {
+        // Value types such as Money reject bad input with IllegalArgumentException, which Jackson wraps
+        Throwable cause = ex.getMostSpecificCause();
+        String message = cause instanceof IllegalArgumentException ? cause.getMessage() : "Malformed request body";
+        log.warn("Unreadable request body: {}", cause.getMessage());
+
+        return ResponseEntity.badRequest().body(ApiResponse.error(400, message));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGenericException(Exception ex) {
         log.error("Unexpected error: ", ex);
@@ -0,0 +1,18 @@
+package com.expensetracker.exception;
+
+import lombok.Getter;
+
+/**
+ * A write that was handed off and may still complete. Answered with 202 and
+ * the id the record will have, so the client can look it up before retrying.
+ */
+@Getter
+public class WriteInProgressException extends ApiException {
+
+    private final String id;
+
+    public WriteInProgressException(String id, String message) {
+        super(202, message);
+        this.id = id;
+    }
+}
@@ -0,0 +1,151 @@
+package com.expensetracker.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples and rate-limits hot-path log statements before an event is even
+ * built. Each rule covers a logger and its children up to a level: enabled
+ * statements at or below that level are kept with probability sampleRate,
+ * and at most maxPerSecond of them per second. ERROR is never dropped, and
+ * isXxxEnabled() checks are left alone.
+ *
+ * Configured in logback-spring.xml:
+ * <pre>
+ * &lt;turboFilter class="com.expensetracker.logging.SamplingTurboFilter"&gt;
+ *     &lt;rule&gt;
+ *         &lt;logger&gt;com.expensetracker.service&lt;/logger&gt;
+ *         &lt;level&gt;INFO&lt;/level&gt;
+ *         &lt;sampleRate&gt;0.01&lt;/sampleRate&gt;
+ *         &lt;maxPerSecond&gt;50&lt;/maxPerSecond&gt;
+ *     &lt;/rule&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final Rule NO_RULE = new Rule();
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, Rule> rulesByLogger = new ConcurrentHashMap<>();
+
+    public void addRule(Rule rule) {
+        rules.add(rule);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public void start() {
+        for (Rule rule : rules) {
+            if (rule.logger == null || rule.level.isGreaterOrEqual(Level.ERROR)) {
+                addError("Each rule needs a logger and a level below ERROR");
+                return;
+            }
+        }
+        // Most specific logger first
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.logger.length()).reversed());
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isXxxEnabled() check, which must not use up the rule's quota
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.ERROR)) {
+            return FilterReply.NEUTRAL;
+        }
+        Rule rule = rulesByLogger.computeIfAbsent(logger.getName(), this::ruleFor);
+        if (rule == NO_RULE || !rule.level.isGreaterOrEqual(level) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (rule.sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= rule.sampleRate) {
+            rule.sampledOut.increment();
+            return FilterReply.DENY;
+        }
+        if (rule.maxPerSecond > 0 && !rule.tryAcquire()) {
+            rule.rateLimited.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private Rule ruleFor(String loggerName) {
+        for (Rule rule : rules) {
+            if (loggerName.equals(rule.logger) || loggerName.startsWith(rule.logger + ".")) {
+                return rule;
+            }
+        }
+        return NO_RULE;
+    }
+
+    public static class Rule {
+
+        private String logger;
+        private Level level = Level.INFO;
+        private double sampleRate = 1;
+        private int maxPerSecond;
+
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicInteger logged = new AtomicInteger();
+        private final LongAdder sampledOut = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+
+        public void setLogger(String logger) {
+            this.logger = logger;
+        }
+
+        public String getLogger() {
+            return logger;
+        }
+
+        public void setLevel(String level) {
+            this.level = Level.toLevel(level, Level.INFO);
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        /** 0 for no limit */
+        public void setMaxPerSecond(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public long getSampledOut() {
+            return sampledOut.sum();
+        }
+
+        public long getRateLimited() {
+            return rateLimited.sum();
+        }
+
+        /**
+         * A fixed one-second window. Threads racing on the rollover may let a
+         * few extra statements through, which is fine for logging.
+         */
+        private boolean tryAcquire() {
+            long now = System.currentTimeMillis() / 1000;
+            long current = second.get();
+            if (now != current && second.compareAndSet(current, now)) {
+                logged.set(0);
+            }
+            return logged.incrementAndGet() <= maxPerSecond;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.expensetracker.metrics;
+
+import com.expensetracker.cache.AnalyticsCache;
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.cache.QueryCoalescer;
+import com.expensetracker.cache.SingleFlight;
+import com.expensetracker.logging.SamplingTurboFilter;
+import com.expensetracker.service.ExpenseWriteBatcher;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the counters the caches, the invalidation bus, the write batcher
+ * and the log sampling filter already keep. Everything is read when scraped; nothing is added to the
+ * request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetrics implements MeterBinder {
+
+    /** The query names ExpenseService coalesces; their flights are created on first use */
+    private static final List<String> COALESCED_QUERIES = List.of("list", "stats", "dashboard");
+
+    private final AnalyticsCache analyticsCache;
+    private final QueryCoalescer queryCoalescer;
+    private final CacheInvalidationBus invalidationBus;
+    private final ExpenseWriteBatcher writeBatcher;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("app.cache.analytics.requests", analyticsCache, AnalyticsCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("app.cache.analytics.requests", analyticsCache, AnalyticsCache::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("app.cache.analytics.evictions", analyticsCache, AnalyticsCache::getEvictions)
+                .register(registry);
+        Gauge.builder("app.cache.analytics.size", analyticsCache, AnalyticsCache::getSize)
+                .description("Users with cached analytics").register(registry);
+        Gauge.builder("app.cache.analytics.bytes", analyticsCache, AnalyticsCache::getBytes)
+                .baseUnit("bytes").register(registry);
+
+        for (String query : COALESCED_QUERIES) {
+            FunctionCounter.builder("app.coalescer.executions", queryCoalescer, flight(query, SingleFlight::getExecutions))
+                    .tag("query", query).register(registry);
+            FunctionCounter.builder("app.coalescer.shared", queryCoalescer, flight(query, SingleFlight::getShared))
+                    .tag("query", query).description("Callers served by another caller's query").register(registry);
+            Gauge.builder("app.coalescer.in.flight", queryCoalescer, flight(query, SingleFlight::getInFlight))
+                    .tag("query", query).register(registry);
+        }
+
+        FunctionCounter.builder("app.invalidation.requested", invalidationBus, CacheInvalidationBus::getRequestedCount)
+                .register(registry);
+        FunctionCounter.builder("app.invalidation.published", invalidationBus, CacheInvalidationBus::getPublishedCount)
+                .register(registry);
+        FunctionCounter.builder("app.invalidation.received", invalidationBus, CacheInvalidationBus::getReceivedCount)
+                .register(registry);
+        Gauge.builder("app.invalidation.pending", invalidationBus, CacheInvalidationBus::getPendingCount)
+                .register(registry);
+        Gauge.builder("app.invalidation.lag.last", invalidationBus, CacheInvalidationBus::getLastLagMs)
+                .baseUnit("milliseconds").register(registry);
+        Gauge.builder("app.invalidation.lag.max", invalidationBus, CacheInvalidationBus::getMaxLagMs)
+                .baseUnit("milliseconds").register(registry);
+
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            for (TurboFilter filter : loggerContext.getTurboFilterList()) {
+                if (filter instanceof SamplingTurboFilter sampling) {
+                    for (SamplingTurboFilter.Rule rule : sampling.getRules()) {
+                        FunctionCounter.builder("app.logging.dropped", rule, SamplingTurboFilter.Rule::getSampledOut)
+                                .tag("logger", rule.getLogger()).tag("reason", "sampled").register(registry);
+                        FunctionCounter.builder("app.logging.dropped", rule, SamplingTurboFilter.Rule::getRateLimited)
+                                .tag("logger", rule.getLogger()).tag("reason", "rate-limited").register(registry);
+                    }
+                }
+            }
+        }
+
+        if (writeBatcher.isEnabled()) {
+            Gauge.builder("app.write.batching.queued", writeBatcher, ExpenseWriteBatcher::getQueued)
+                    .register(registry);
+            Gauge.builder("app.write.batching.batch.limit", writeBatcher, ExpenseWriteBatcher::getBatchLimit)
+                    .register(registry);
+        }
+    }
+
+    private static ToDoubleFunction<QueryCoalescer> flight(String query, ToDoubleFunction<SingleFlight<Object, Object>> stat) {
+        return coalescer -> {
+            SingleFlight<Object, Object> flight = coalescer.getFlights().get(query);
+            return flight != null ? stat.applyAsDouble(flight) : 0;
+        };
+    }
+}
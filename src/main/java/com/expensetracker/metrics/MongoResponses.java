@@ -0,0 +1,41 @@
+package com.expensetracker.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+
+/**
+ * Cheap reads of a command's response as the driver hands it to listeners,
+ * still in its wire buffer.
+ */
+@Slf4j
+public final class MongoResponses {
+
+    private MongoResponses() {
+    }
+
+    /** Documents in the cursor batch of a find, aggregate or getMore response */
+    public static int documentsReturned(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor == null || !cursor.isDocument()) {
+            return 0;
+        }
+        BsonValue batch = cursor.asDocument().get("firstBatch");
+        if (batch == null) {
+            batch = cursor.asDocument().get("nextBatch");
+        }
+        return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+    }
+
+    /** The response's encoded size, read from its length prefix without copying it */
+    public static long sizeInBytes(BsonDocument response) {
+        try (BsonReader reader = response.asBsonReader()) {
+            return reader instanceof BsonBinaryReader binary ? binary.getBsonInput().readInt32() : 0;
+        } catch (RuntimeException e) {
+            log.debug("Could not read response size", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.metrics;
+
+import com.mongodb.event.CommandEvent;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.mongodb.DefaultMongoCommandTagsProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the issuing {@link StoreOperation} to the tags of the
+ * mongodb.driver.commands timer, so an aggregate or find can be traced back
+ * to the store method that ran it. Replaces the auto-configured provider.
+ */
+@Component
+public class OperationMongoCommandTagsProvider extends DefaultMongoCommandTagsProvider {
+
+    @Override
+    public Iterable<Tag> commandTags(CommandEvent event) {
+        return Tags.of(super.commandTags(event)).and("operation", StoreOperation.current());
+    }
+}
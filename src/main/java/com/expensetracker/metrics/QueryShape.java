@@ -0,0 +1,81 @@
+package com.expensetracker.metrics;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The shape of a Mongo command: its collection, the command name and its
+ * filter, pipeline and sort with every literal replaced by "?", so queries
+ * differing only in user id, dates or amounts share one shape. Field paths
+ * ("$amountMinor"), operators, sort and projection are kept.
+ */
+public final class QueryShape {
+
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    /** Parts of a command that define what it reads; batch size, limit and session fields do not */
+    private static final List<String> SHAPE_FIELDS = List.of("filter", "query", "pipeline", "sort", "projection", "key", "hint");
+
+    /** Parts that carry no user data and are kept verbatim */
+    private static final Set<String> VERBATIM_FIELDS = Set.of("sort", "projection", "key", "hint");
+
+    private QueryShape() {
+    }
+
+    public static String of(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        for (String field : SHAPE_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                shape.put(field, VERBATIM_FIELDS.contains(field) ? value : normalize(value));
+            }
+        }
+        return collection(commandName, command) + "." + commandName + " " + shape.toJson();
+    }
+
+    static String collection(String commandName, BsonDocument command) {
+        BsonValue collection = command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : "?";
+    }
+
+    private static BsonValue normalize(BsonValue value) {
+        switch (value.getBsonType()) {
+            case DOCUMENT:
+                BsonDocument document = new BsonDocument();
+                for (var entry : value.asDocument().entrySet()) {
+                    document.put(entry.getKey(), normalize(entry.getValue()));
+                }
+                return document;
+            case ARRAY:
+                // Pipelines, $and/$or and expressions keep their structure; lists of literals ($in) collapse
+                BsonArray array = value.asArray();
+                if (!isStructural(array)) {
+                    return PLACEHOLDER;
+                }
+                BsonArray normalized = new BsonArray(array.size());
+                for (BsonValue element : array) {
+                    normalized.add(normalize(element));
+                }
+                return normalized;
+            case STRING:
+                return value.asString().getValue().startsWith("$") ? value : PLACEHOLDER;
+            default:
+                return PLACEHOLDER;
+        }
+    }
+
+    private static boolean isStructural(BsonArray array) {
+        for (BsonValue element : array) {
+            if (element.isDocument() || element.isArray()
+                    || (element.isString() && element.asString().getValue().startsWith("$"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.expensetracker.metrics;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The id of the user the current thread is serving, or null for anonymous
+ * requests and background work.
+ */
+public final class RequestUser {
+
+    private RequestUser() {
+    }
+
+    public static String current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getPrincipal() instanceof String userId ? userId : null;
+    }
+}
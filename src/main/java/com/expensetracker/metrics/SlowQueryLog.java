@@ -0,0 +1,323 @@
+package com.expensetracker.metrics;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs Mongo reads slower than app.slow-query.threshold-ms with their
+ * normalized {@link QueryShape}, the store operation and application method
+ * that issued them, the user and the duration.
+ *
+ * The most recent slow queries are kept in a ring buffer, and per shape the
+ * count, total and worst time. The first time a shape is slow, and then at
+ * most once per app.slow-query.explain-interval-seconds, the command is
+ * re-run as explain("executionStats") on a background thread, so the plan
+ * and documents examined are at hand when someone looks.
+ *
+ * The driver reports commands on the calling thread, which is what lets the
+ * caller and user be read here. Each read command is copied when it starts,
+ * since the event's document is only valid during the callback.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog implements CommandListener {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "findAndModify");
+
+    /** Session and cluster fields the driver adds, which explain must not be given */
+    private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "readConcern", "writeConcern",
+            "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    private static final int MAX_PENDING = 10_000;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ObjectProvider<MongoClient> mongoClient;
+
+    @Value("${app.slow-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.slow-query.threshold-ms:100}")
+    private long thresholdMillis;
+
+    @Value("${app.slow-query.explain-interval-seconds:300}")
+    private long explainIntervalSeconds;
+
+    @Value("${app.slow-query.max-shapes:1000}")
+    private int maxShapes;
+
+    private final AtomicReferenceArray<SlowQuery> recent;
+    private final AtomicLong recorded = new AtomicLong();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer;
+
+    public SlowQueryLog(ObjectProvider<MongoClient> mongoClient,
+                        @Value("${app.slow-query.buffer-size:200}") int bufferSize) {
+        this.mongoClient = mongoClient;
+        this.recent = new AtomicReferenceArray<>(bufferSize);
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        explainer.shutdownNow();
+    }
+
+    public record SlowQuery(LocalDateTime at, String shape, String operation, String caller, String userId,
+                            long durationMs, Integer returned, boolean failed) {
+    }
+
+    public record Explain(String plan, long keysExamined, long docsExamined, long returned,
+                          long executionTimeMs, LocalDateTime at, String error) {
+    }
+
+    public record ShapeSummary(String shape, long count, long totalMs, long maxMs, String lastCaller,
+                               Explain explain) {
+    }
+
+    public record Report(long thresholdMs, long recorded, List<SlowQuery> slowest, List<ShapeSummary> shapes) {
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled || !QUERY_COMMANDS.contains(event.getCommandName()) || pending.size() >= MAX_PENDING) {
+            return;
+        }
+        pending.put(event.getRequestId(), new Pending(event.getDatabaseName(), event.getCommand().clone()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Pending started = pending.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (started != null && elapsed >= thresholdMillis) {
+            record(event.getCommandName(), started, elapsed, returned(event.getResponse()), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Pending started = pending.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (started != null && elapsed >= thresholdMillis) {
+            record(event.getCommandName(), started, elapsed, null, true);
+        }
+    }
+
+    /**
+     * The slowest of the recent slow queries and the shapes with the most
+     * total time, worst first.
+     */
+    public Report report(int limit) {
+        List<SlowQuery> slowest = new ArrayList<>();
+        for (int i = 0; i < recent.length(); i++) {
+            SlowQuery query = recent.get(i);
+            if (query != null) {
+                slowest.add(query);
+            }
+        }
+        slowest.sort(Comparator.comparingLong(SlowQuery::durationMs).reversed());
+
+        List<ShapeSummary> summaries = new ArrayList<>(shapes.size());
+        for (Map.Entry<String, ShapeStats> entry : shapes.entrySet()) {
+            ShapeStats stats = entry.getValue();
+            summaries.add(new ShapeSummary(entry.getKey(), stats.count.sum(), stats.totalMillis.sum(),
+                    stats.maxMillis.get(), stats.lastCaller, stats.explain));
+        }
+        summaries.sort(Comparator.comparingLong(ShapeSummary::totalMs).reversed());
+
+        return new Report(thresholdMillis, recorded.get(),
+                slowest.subList(0, Math.min(limit, slowest.size())),
+                summaries.subList(0, Math.min(limit, summaries.size())));
+    }
+
+    public void clear() {
+        for (int i = 0; i < recent.length(); i++) {
+            recent.set(i, null);
+        }
+        shapes.clear();
+    }
+
+    private void record(String commandName, Pending started, long elapsed, Integer returned, boolean failed) {
+        BsonDocument command = started.command();
+        String shape = QueryShape.of(commandName, command);
+        String caller = caller();
+        String userId = RequestUser.current();
+        String operation = StoreOperation.current();
+
+        log.warn("Slow {} ({} ms{}): {} from {} [{}] for user {}", commandName, elapsed, failed ? ", failed" : "",
+                shape, caller, operation, userId);
+
+        SlowQuery query = new SlowQuery(LocalDateTime.now(), shape, operation, caller, userId, elapsed, returned, failed);
+        if (recent.length() > 0) {
+            recent.set((int) (recorded.getAndIncrement() % recent.length()), query);
+        }
+
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, s -> new ShapeStats());
+        }
+        stats.count.increment();
+        stats.totalMillis.add(elapsed);
+        stats.maxMillis.accumulateAndGet(elapsed, Math::max);
+        stats.lastCaller = caller;
+
+        long now = System.currentTimeMillis();
+        long lastExplain = stats.lastExplainAt.get();
+        if (!failed && (lastExplain == 0 || now - lastExplain >= explainIntervalSeconds * 1000)
+                && stats.lastExplainAt.compareAndSet(lastExplain, now)) {
+            ShapeStats target = stats;
+            explainer.execute(() -> target.explain = explain(started.database(), commandName, command));
+        }
+    }
+
+    private Explain explain(String database, String commandName, BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+            if (!entry.getKey().startsWith("$") && !SESSION_FIELDS.contains(entry.getKey())) {
+                explainable.put(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            Document result = mongoClient.getObject().getDatabase(database).runCommand(
+                    new BsonDocument("explain", explainable).append("verbosity", new BsonString("executionStats")));
+            return parseExplain(result);
+        } catch (RuntimeException e) {
+            log.debug("Could not explain slow {}", commandName, e);
+            return new Explain(null, 0, 0, 0, 0, LocalDateTime.now(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the winning plan and execution stats, which an aggregate reports
+     * under its first stage's $cursor unless the whole pipeline ran in the
+     * query layer.
+     */
+    private static Explain parseExplain(Document result) {
+        Document planner = result.get("queryPlanner", Document.class);
+        Document stats = result.get("executionStats", Document.class);
+        if (planner == null && result.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.get(0) instanceof Document first && first.get("$cursor") instanceof Document cursor) {
+            planner = cursor.get("queryPlanner", Document.class);
+            stats = cursor.get("executionStats", Document.class);
+        }
+
+        String plan = null;
+        if (planner != null && planner.get("winningPlan") instanceof Document winningPlan) {
+            // Plans from the slot-based engine nest the classic tree under queryPlan
+            plan = describePlan(winningPlan.get("queryPlan") instanceof Document queryPlan ? queryPlan : winningPlan);
+        }
+        if (stats == null) {
+            return new Explain(plan, 0, 0, 0, 0, LocalDateTime.now(), null);
+        }
+        return new Explain(plan, longValue(stats, "totalKeysExamined"), longValue(stats, "totalDocsExamined"),
+                longValue(stats, "nReturned"), longValue(stats, "executionTimeMillis"), LocalDateTime.now(), null);
+    }
+
+    /** The plan's stages from the root down, e.g. "FETCH > IXSCAN owner_1_expenseDate_-1" */
+    private static String describePlan(Document stage) {
+        StringBuilder plan = new StringBuilder();
+        while (stage != null) {
+            if (plan.length() > 0) {
+                plan.append(" > ");
+            }
+            plan.append(stage.getString("stage"));
+            if (stage.getString("indexName") != null) {
+                plan.append(' ').append(stage.getString("indexName"));
+            }
+            if (stage.get("inputStage") instanceof Document input) {
+                stage = input;
+            } else if (stage.get("inputStages") instanceof List<?> inputs && !inputs.isEmpty()
+                    && inputs.get(0) instanceof Document input) {
+                stage = input;
+            } else {
+                stage = null;
+            }
+        }
+        return plan.toString();
+    }
+
+    private static long longValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static Integer returned(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument() && cursor.asDocument().get("firstBatch") != null) {
+            return cursor.asDocument().getArray("firstBatch").size();
+        }
+        return null;
+    }
+
+    /** The first application frame outside the stores, e.g. "ExpenseService.getExpenseStats" */
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.expensetracker.")
+                        && !frame.getClassName().startsWith("com.expensetracker.metrics.")
+                        && !frame.getClassName().startsWith("com.expensetracker.repository."))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + methodName(frame.getMethodName()))
+                .orElse(null));
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int proxySuffix = name.indexOf("$$");
+        return proxySuffix > 0 ? name.substring(0, proxySuffix) : name;
+    }
+
+    /** lambda$getExpenseStats$3 is reported as getExpenseStats */
+    private static String methodName(String method) {
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            return end > 7 ? method.substring(7, end) : method;
+        }
+        return method;
+    }
+
+    private record Pending(String database, BsonDocument command) {
+    }
+
+    private static final class ShapeStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final AtomicLong maxMillis = new AtomicLong();
+        final AtomicLong lastExplainAt = new AtomicLong();
+        volatile String lastCaller;
+        volatile Explain explain;
+    }
+}
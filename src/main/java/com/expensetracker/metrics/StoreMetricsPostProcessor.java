@@ -0,0 +1,100 @@
+package com.expensetracker.metrics;
+
+import com.expensetracker.profiling.StoreEvents;
+import com.expensetracker.repository.ExpenseStore;
+import com.expensetracker.repository.UserStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Event;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call into the {@link ExpenseStore} and {@link UserStore} beans
+ * as app.store.calls, tagged with store, method and outcome, and marks the
+ * calling thread with the {@link StoreOperation} so Mongo command timings
+ * carry it too. Expense store calls also emit flight recorder events while a
+ * recording is running.
+ *
+ * The stores are proxied by class, so beans injected by their concrete type
+ * keep working.
+ */
+@Component
+public class StoreMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StoreMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String store;
+        if (bean instanceof ExpenseStore) {
+            store = ExpenseStore.class.getSimpleName();
+        } else if (bean instanceof UserStore) {
+            store = UserStore.class.getSimpleName();
+        } else {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TimingInterceptor(store, meterRegistry));
+        return proxyFactory.getProxy();
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+
+        private final String store;
+        private final boolean expenseStore;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String store, ObjectProvider<MeterRegistry> meterRegistry) {
+            this.store = store;
+            this.expenseStore = ExpenseStore.class.getSimpleName().equals(store);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            String method = invocation.getMethod().getName();
+            String operation = store + "." + method;
+            String previous = StoreOperation.enter(operation);
+            Event event = expenseStore ? StoreEvents.begin(method) : null;
+            long started = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                if (event != null) {
+                    StoreEvents.commit(event, operation, result);
+                }
+                return result;
+            } finally {
+                StoreOperation.exit(previous);
+                timer(method, failed ? "error" : "success").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Timer timer(String method, String outcome) {
+            return timers.computeIfAbsent(method + ":" + outcome, key -> Timer.builder("app.store.calls")
+                    .description("Calls into the storage layer")
+                    .tag("store", store)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry.getObject()));
+        }
+    }
+}
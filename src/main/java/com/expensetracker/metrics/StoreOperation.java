@@ -0,0 +1,39 @@
+package com.expensetracker.metrics;
+
+/**
+ * The store method the current thread is in, such as
+ * "ExpenseStore.findPage", so Mongo commands can be attributed to the call
+ * that issued them. The driver reports commands on the calling thread.
+ */
+public final class StoreOperation {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private StoreOperation() {
+    }
+
+    public static String current() {
+        String operation = CURRENT.get();
+        return operation != null ? operation : NONE;
+    }
+
+    /**
+     * Marks the thread as inside the operation and returns the enclosing one,
+     * to hand back to {@link #exit}.
+     */
+    static String enter(String operation) {
+        String previous = CURRENT.get();
+        CURRENT.set(operation);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.expensetracker.metrics;
+
+import com.expensetracker.exception.ApiException;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user resource accounting: API requests and their time, and the Mongo
+ * commands run on the user's behalf with their time, the documents they
+ * returned and the bytes of their responses.
+ *
+ * Request threads only add to striped {@link LongAdder}s, so recording takes
+ * no lock and threads rarely contend. Every app.accounting.flush-interval-ms
+ * the counters are drained into per-user totals, and users with no activity
+ * in the interval are dropped from the live map. A thread may have fetched a
+ * user's counters just before they were dropped, so they are drained once
+ * more on the next flush before being discarded. Rankings are served from
+ * the last flush.
+ *
+ * Commands run by background threads, such as the write batcher's and the
+ * purge worker's, have no user and are not counted. Mongo does not report the
+ * documents a command examined outside explain and the profiler; the slow
+ * query log captures those for the worst shapes.
+ */
+@Component
+public class UserAccounting implements CommandListener {
+
+    @Value("${app.accounting.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.accounting.max-users:100000}")
+    private int maxUsers;
+
+    private final Map<String, Counters> live = new ConcurrentHashMap<>();
+    private final Map<String, Usage> totals = new HashMap<>();
+    /** Counters dropped from live at the last flush, still to be drained once more */
+    private Map<String, Counters> retired = new HashMap<>();
+    private final LocalDateTime since = LocalDateTime.now();
+
+    private volatile Snapshot snapshot = new Snapshot(null, Map.of(), Map.of());
+
+    public record Usage(String userId, long requests, long requestMs, long mongoCommands, long mongoMs,
+                        long documentsReturned, long bytesReturned) {
+
+        Usage plus(Usage other) {
+            return new Usage(userId, requests + other.requests, requestMs + other.requestMs,
+                    mongoCommands + other.mongoCommands, mongoMs + other.mongoMs,
+                    documentsReturned + other.documentsReturned, bytesReturned + other.bytesReturned);
+        }
+    }
+
+    public record Ranking(String by, String window, LocalDateTime since, LocalDateTime flushedAt,
+                          int usersTracked, List<Usage> users) {
+    }
+
+    /**
+     * Counts an API request served for the user.
+     */
+    public void recordRequest(String userId, long elapsedNanos) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        Counters counters = counters(userId);
+        counters.requests.increment();
+        counters.requestNanos.add(elapsedNanos);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String userId = RequestUser.current();
+        if (userId == null) {
+            return;
+        }
+        Counters counters = counters(userId);
+        counters.mongoCommands.increment();
+        counters.mongoNanos.add(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        BsonDocument response = event.getResponse();
+        counters.documents.add(MongoResponses.documentsReturned(response));
+        counters.bytes.add(MongoResponses.sizeInBytes(response));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String userId = RequestUser.current();
+        if (userId == null) {
+            return;
+        }
+        Counters counters = counters(userId);
+        counters.mongoCommands.increment();
+        counters.mongoNanos.add(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Scheduled(fixedDelayString = "${app.accounting.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<String, Usage> window = new HashMap<>();
+        for (Map.Entry<String, Counters> entry : retired.entrySet()) {
+            Usage late = entry.getValue().drain(entry.getKey());
+            if (!idle(late)) {
+                window.merge(entry.getKey(), late, Usage::plus);
+            }
+        }
+        retired = new HashMap<>();
+        for (Map.Entry<String, Counters> entry : live.entrySet()) {
+            Usage drained = entry.getValue().drain(entry.getKey());
+            if (idle(drained)) {
+                // Anything added after this drain is picked up from retired next time
+                if (live.remove(entry.getKey(), entry.getValue())) {
+                    retired.put(entry.getKey(), entry.getValue());
+                }
+                continue;
+            }
+            window.merge(entry.getKey(), drained, Usage::plus);
+        }
+        for (Usage usage : window.values()) {
+            totals.merge(usage.userId(), usage, Usage::plus);
+        }
+
+        if (totals.size() > maxUsers) {
+            List<Usage> lightest = new ArrayList<>(totals.values());
+            lightest.sort(Comparator.comparingLong(Usage::mongoMs).thenComparingLong(Usage::requestMs));
+            int excess = totals.size() - maxUsers;
+            for (int i = 0; i < excess; i++) {
+                totals.remove(lightest.get(i).userId());
+            }
+        }
+        snapshot = new Snapshot(LocalDateTime.now(), Map.copyOf(window), Map.copyOf(totals));
+    }
+
+    public synchronized void reset() {
+        live.clear();
+        retired = new HashMap<>();
+        totals.clear();
+        snapshot = new Snapshot(LocalDateTime.now(), Map.of(), Map.of());
+    }
+
+    /**
+     * The heaviest users as of the last flush, either over the last interval
+     * ("last") or since startup ("total").
+     */
+    public Ranking heaviest(String by, String window, int limit) {
+        Snapshot current = snapshot;
+        Map<String, Usage> usage;
+        switch (window) {
+            case "last":
+                usage = current.window();
+                break;
+            case "total":
+                usage = current.totals();
+                break;
+            default:
+                throw new ApiException(400, "window must be last or total");
+        }
+
+        List<Usage> users = new ArrayList<>(usage.values());
+        users.sort(comparator(by).reversed());
+        return new Ranking(by, window, since, current.flushedAt(), usage.size(),
+                users.subList(0, Math.min(limit, users.size())));
+    }
+
+    private static Comparator<Usage> comparator(String by) {
+        switch (by) {
+            case "mongo-time":
+                return Comparator.comparingLong(Usage::mongoMs);
+            case "mongo-commands":
+                return Comparator.comparingLong(Usage::mongoCommands);
+            case "documents":
+                return Comparator.comparingLong(Usage::documentsReturned);
+            case "bytes":
+                return Comparator.comparingLong(Usage::bytesReturned);
+            case "requests":
+                return Comparator.comparingLong(Usage::requests);
+            case "request-time":
+                return Comparator.comparingLong(Usage::requestMs);
+            default:
+                throw new ApiException(400,
+                        "by must be one of mongo-time, mongo-commands, documents, bytes, requests, request-time");
+        }
+    }
+
+    private static boolean idle(Usage usage) {
+        return usage.requests() == 0 && usage.mongoCommands() == 0;
+    }
+
+    private Counters counters(String userId) {
+        Counters counters = live.get(userId);
+        return counters != null ? counters : live.computeIfAbsent(userId, id -> new Counters());
+    }
+
+    private record Snapshot(LocalDateTime flushedAt, Map<String, Usage> window, Map<String, Usage> totals) {
+    }
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder requestNanos = new LongAdder();
+        final LongAdder mongoCommands = new LongAdder();
+        final LongAdder mongoNanos = new LongAdder();
+        final LongAdder documents = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        Usage drain(String userId) {
+            return new Usage(userId, requests.sumThenReset(), TimeUnit.NANOSECONDS.toMillis(requestNanos.sumThenReset()),
+                    mongoCommands.sumThenReset(), TimeUnit.NANOSECONDS.toMillis(mongoNanos.sumThenReset()),
+                    documents.sumThenReset(), bytes.sumThenReset());
+        }
+    }
+}
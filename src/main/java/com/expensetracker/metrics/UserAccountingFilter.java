@@ -0,0 +1,43 @@
+package com.expensetracker.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts each API request against its user in {@link UserAccounting}. Runs
+ * after the security filters, so the user is known, and reads it before they
+ * clear the context on the way out.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAccountingFilter extends OncePerRequestFilter {
+
+    private final UserAccounting userAccounting;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            userAccounting.recordRequest(RequestUser.current(), System.nanoTime() - started);
+        }
+    }
+}
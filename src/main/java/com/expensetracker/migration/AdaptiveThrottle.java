@@ -0,0 +1,55 @@
+package com.expensetracker.migration;
+
+/**
+ * Sizes background batches (migrations, purges) from the observed time of
+ * each batch round trip.
+ *
+ * A batch slower than the target halves the next batch and doubles the pause
+ * before it; a batch within the target grows the next one by a fixed step and
+ * halves the pause. Live traffic slowing the database therefore backs the
+ * migration off within a few batches, and it speeds up again once it clears.
+ */
+public final class AdaptiveThrottle {
+
+    private static final long MAX_PAUSE_MILLIS = 5_000;
+    private static final long MIN_PAUSE_MILLIS = 10;
+
+    private final long targetMillis;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int step;
+    private int batchSize;
+    private long pauseMillis;
+
+    public AdaptiveThrottle(long targetMillis, int initialBatchSize, int minBatchSize, int maxBatchSize) {
+        this.targetMillis = targetMillis;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.step = Math.max(1, initialBatchSize / 4);
+        this.batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, initialBatchSize));
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public long pauseMillis() {
+        return pauseMillis;
+    }
+
+    public void record(long elapsedMillis) {
+        if (elapsedMillis > targetMillis) {
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+            pauseMillis = Math.min(MAX_PAUSE_MILLIS, Math.max(MIN_PAUSE_MILLIS, pauseMillis * 2));
+        } else {
+            batchSize = Math.min(maxBatchSize, batchSize + step);
+            pauseMillis = pauseMillis / 2 < MIN_PAUSE_MILLIS ? 0 : pauseMillis / 2;
+        }
+    }
+
+    public void pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
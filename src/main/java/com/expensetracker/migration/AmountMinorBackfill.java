@@ -0,0 +1,46 @@
+package com.expensetracker.migration;
+
+import com.expensetracker.model.Money;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes amountMinor on expenses stored while amounts were doubles. The old
+ * amount field is left in place for rollback.
+ */
+@Component
+public class AmountMinorBackfill implements Migration {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "Backfill expenses.amountMinor from the legacy double amount";
+    }
+
+    @Override
+    public String collection() {
+        return "expenses";
+    }
+
+    @Override
+    public Criteria pending() {
+        return Criteria.where("amountMinor").exists(false).and("amount").type(JsonSchemaObject.Type.numberType());
+    }
+
+    @Override
+    public String[] fields() {
+        return new String[]{"amount"};
+    }
+
+    @Override
+    public Update update(Document document) {
+        return new Update().set("amountMinor", Money.minorFromLegacy(((Number) document.get("amount")).doubleValue()));
+    }
+}
@@ -0,0 +1,199 @@
+package com.expensetracker.migration;
+
+import com.expensetracker.codec.EntityCodecs;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseBucket;
+import com.expensetracker.repository.BucketExpenseStore;
+import com.expensetracker.repository.DocumentExpenseStore;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Copies the expenses collection into month buckets, then prints a comparison
+ * of both layouts: collection and index sizes, and list/stats latency for a
+ * sample of owners.
+ *
+ * Buckets are written with whole-document upserts under the same ids the
+ * bucket store uses, so the copy can be re-run safely. A month with more than
+ * BucketExpenseStore.MAX_EXPENSES_PER_BUCKET expenses is split across
+ * numbered parts. Once an owner is copied, any of their other buckets, such as
+ * parts of a month that has since shrunk, are deleted. Writes that land in the
+ * document layout during the copy are picked up by running it again before
+ * switching app.storage.expense-layout to bucket.
+ *
+ * This is not a {@link Migration}: it copies into another collection rather
+ * than rewriting documents in place, so {@link MigrationRunner} does not run
+ * it. It is unmanaged: there is no throttle, checkpoint or lease, it starts
+ * over on every run, and only one instance should have it enabled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.bucket-migration.enabled", havingValue = "true")
+public class BucketLayoutMigration implements ApplicationRunner {
+
+    private static final int SAMPLE_RUNS = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final ExpenseRepository expenseRepository;
+    private final EntityCodecs entityCodecs;
+
+    @Value("${app.storage.bucket-migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.storage.bucket-migration.compare-owners:20}")
+    private int compareOwners;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        List<String> sampleOwners = new ArrayList<>();
+        long[] totals = new long[2];
+
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "owner").and(Sort.by(Sort.Direction.DESC, "expenseDate")));
+        List<ExpenseBucket> pending = new ArrayList<>();
+        ExpenseBucket current = null;
+        int part = 0;
+        Set<String> ownerBucketIds = new HashSet<>();
+
+        try (Stream<Expense> stream = mongoTemplate.stream(query, Expense.class)) {
+            Iterator<Expense> expenses = stream.iterator();
+            while (expenses.hasNext()) {
+                Expense expense = expenses.next();
+                String month = BucketExpenseStore.monthOf(expense.getExpenseDate());
+                boolean sameMonth = current != null && current.getOwner().equals(expense.getOwner())
+                        && current.getMonth().equals(month);
+                boolean full = sameMonth && current.getCount() >= BucketExpenseStore.MAX_EXPENSES_PER_BUCKET;
+
+                if (!sameMonth || full) {
+                    if (current != null) {
+                        pending.add(current);
+                        if (pending.size() >= batchSize) {
+                            totals[1] += writeBuckets(pending);
+                        }
+                        if (!current.getOwner().equals(expense.getOwner())) {
+                            removeOtherBuckets(current.getOwner(), ownerBucketIds);
+                        }
+                    }
+                    if (sampleOwners.size() < compareOwners && !sampleOwners.contains(expense.getOwner())) {
+                        sampleOwners.add(expense.getOwner());
+                    }
+                    part = full ? part + 1 : 0;
+                    current = ExpenseBucket.builder()
+                            .id(BucketExpenseStore.bucketId(expense.getOwner(), month, part))
+                            .owner(expense.getOwner())
+                            .month(month)
+                            .part(part)
+                            .count(0L)
+                            .expenses(new ArrayList<>())
+                            .build();
+                    ownerBucketIds.add(current.getId());
+                }
+                current.getExpenses().add(expense);
+                current.setCount(current.getCount() + 1);
+                totals[0]++;
+            }
+        }
+        if (current != null) {
+            pending.add(current);
+        }
+        totals[1] += writeBuckets(pending);
+        if (current != null) {
+            removeOtherBuckets(current.getOwner(), ownerBucketIds);
+        }
+
+        log.info("Bucket migration copied {} expenses into {} buckets in {} ms",
+                totals[0], totals[1], System.currentTimeMillis() - started);
+        compare(sampleOwners);
+    }
+
+    private int writeBuckets(List<ExpenseBucket> buckets) {
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExpenseBucket.class);
+        for (ExpenseBucket bucket : buckets) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(bucket, document);
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(bucket.getId())), document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        int written = buckets.size();
+        buckets.clear();
+        return written;
+    }
+
+    /**
+     * Deletes the owner's buckets that this copy did not write, then forgets their ids.
+     */
+    private void removeOtherBuckets(String owner, Set<String> written) {
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("owner").is(owner).and("_id").nin(written)),
+                ExpenseBucket.class).getDeletedCount();
+        if (removed > 0) {
+            log.info("Removed {} stale buckets of owner {}", removed, owner);
+        }
+        written.clear();
+    }
+
+    private void compare(List<String> owners) {
+        for (String collection : List.of("expenses", BucketExpenseStore.COLLECTION)) {
+            Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", collection));
+            log.info("{}: count={} size={} storageSize={} totalIndexSize={} avgObjSize={}",
+                    collection, stats.get("count"), stats.get("size"), stats.get("storageSize"),
+                    stats.get("totalIndexSize"), stats.get("avgObjSize"));
+        }
+        if (owners.isEmpty()) {
+            return;
+        }
+
+        ExpenseStore documents = new DocumentExpenseStore(expenseRepository, mongoTemplate, entityCodecs);
+        ExpenseStore buckets = new BucketExpenseStore(mongoTemplate);
+        PageRequest firstPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "expenseDate"));
+
+        for (ExpenseStore store : List.of(documents, buckets)) {
+            String name = store == documents ? "document" : "bucket";
+            report(name + " list", owners, owner -> store.findPage(owner, null, null, null, firstPage));
+            report(name + " stats", owners, owner -> store.categoryTotals(owner, null, null));
+        }
+    }
+
+    private void report(String label, List<String> owners, Consumer<String> query) {
+        long[] samples = new long[owners.size() * SAMPLE_RUNS];
+        int i = 0;
+        for (int run = 0; run < SAMPLE_RUNS; run++) {
+            for (String owner : owners) {
+                long start = System.nanoTime();
+                query.accept(owner);
+                samples[i++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(samples);
+        log.info("{}: p50={} us p99={} us over {} queries", label,
+                samples[samples.length / 2] / 1000, samples[(int) (samples.length * 0.99)] / 1000, samples.length);
+    }
+}
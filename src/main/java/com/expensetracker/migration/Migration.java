@@ -0,0 +1,33 @@
+package com.expensetracker.migration;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * One versioned rewrite of existing documents, run by {@link MigrationRunner}
+ * in ascending version order.
+ *
+ * The runner re-applies {@link #pending()} to every update it issues, so a
+ * document that changed or was already migrated since it was read is left
+ * alone and re-running a batch is harmless.
+ */
+public interface Migration {
+
+    int version();
+
+    String description();
+
+    String collection();
+
+    /** Documents this migration still has to rewrite. */
+    Criteria pending();
+
+    /** Fields {@link #update} reads; the _id is always fetched. */
+    default String[] fields() {
+        return new String[0];
+    }
+
+    /** The update for one pending document, or null to leave it as it is. */
+    Update update(Document document);
+}
@@ -0,0 +1,56 @@
+package com.expensetracker.migration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one migration, keyed by its version. The runner that holds the
+ * lease advances lastId after every batch, so a restart, a pause or another
+ * instance picks up after the last _id that was written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "schema_migrations")
+public class MigrationCheckpoint {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String PAUSED = "PAUSED";
+    public static final String FAILED = "FAILED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String DRY_RUN = "DRY_RUN";
+
+    @Id
+    private Integer version;
+
+    private String description;
+
+    private String status;
+
+    /** _id of the last document processed; the next batch starts after it */
+    private Object lastId;
+
+    private long scanned;
+
+    private long modified;
+
+    private String owner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+
+    private String error;
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Starts migrations when the application comes up.
+ *
+ * With --migrate (and optionally --dry-run) on the command line the pending
+ * migrations run in the foreground and the process exits when they finish,
+ * non-zero if any did not complete. Otherwise, with
+ * app.migrations.run-at-startup, they run on a background thread while the
+ * application serves traffic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigrationLauncher implements ApplicationRunner {
+
+    private final MigrationRunner migrationRunner;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.migrations.run-at-startup:false}")
+    private boolean runAtStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("migrate")) {
+            boolean dryRun = args.containsOption("dry-run");
+            List<MigrationCheckpoint> results = migrationRunner.runAll(dryRun);
+            boolean complete = true;
+            for (MigrationCheckpoint result : results) {
+                log.info("Migration {}: {} (scanned {}, modified {})", result.getVersion(), result.getStatus(),
+                        result.getScanned(), result.getModified());
+                complete &= dryRun || MigrationCheckpoint.COMPLETED.equals(result.getStatus());
+            }
+            int exitCode = complete ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        } else if (runAtStartup) {
+            migrationRunner.start(false);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.expensetracker.migration;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runs the registered {@link Migration}s in version order, one batch of
+ * _id-ordered documents at a time, while the application keeps serving.
+ *
+ * Each migration is claimed through a lease on its checkpoint document, so
+ * only one instance works on it at a time and a crashed instance's work is
+ * taken over once the lease expires. Batch size and the pause between batches
+ * come from an {@link AdaptiveThrottle}. A pause request stops the run after
+ * the current batch; starting again resumes from the checkpoint.
+ *
+ * A dry run scans from the current checkpoint and counts the documents that
+ * would change without writing anything, checkpoints included. Its report is
+ * kept in memory for {@link #dryRunReport}, one entry per migration scanned.
+ */
+@Slf4j
+@Service
+public class MigrationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<Migration> migrations;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${app.migrations.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.migrations.min-batch-size:50}")
+    private int minBatchSize;
+
+    @Value("${app.migrations.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${app.migrations.target-latency-ms:100}")
+    private long targetLatencyMillis;
+
+    @Value("${app.migrations.lease-seconds:60}")
+    private long leaseSeconds;
+
+    private volatile boolean pauseRequested;
+    private volatile List<MigrationCheckpoint> dryRunReport = List.of();
+    private Thread worker;
+
+    public MigrationRunner(MongoTemplate mongoTemplate, List<Migration> migrations) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::version));
+    }
+
+    /**
+     * Starts (or resumes) the pending migrations on a background thread.
+     * Returns false when a run is already in progress on this instance.
+     */
+    public synchronized boolean start(boolean dryRun) {
+        if (worker != null && worker.isAlive()) {
+            return false;
+        }
+        pauseRequested = false;
+        worker = new Thread(() -> runAll(dryRun), "schema-migrations");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public void pause() {
+        pauseRequested = true;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        pauseRequested = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        Thread current = worker;
+        return current != null && current.isAlive();
+    }
+
+    /**
+     * Runs every migration that has not completed, in the calling thread.
+     * Stops at the first one that fails, is paused, or is held by another
+     * instance, since later versions may depend on it.
+     */
+    public List<MigrationCheckpoint> runAll(boolean dryRun) {
+        List<MigrationCheckpoint> results = dryRun ? new CopyOnWriteArrayList<>() : new ArrayList<>();
+        if (dryRun) {
+            dryRunReport = results;
+        }
+        for (Migration migration : migrations) {
+            MigrationCheckpoint result = run(migration, dryRun);
+            results.add(result);
+            if (!MigrationCheckpoint.COMPLETED.equals(result.getStatus())
+                    && !MigrationCheckpoint.DRY_RUN.equals(result.getStatus())) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The latest dry run's results so far: one per migration it has finished scanning.
+     */
+    public List<MigrationCheckpoint> dryRunReport() {
+        return List.copyOf(dryRunReport);
+    }
+
+    /**
+     * Checkpoints of all registered migrations, including ones never started.
+     */
+    public List<MigrationCheckpoint> status() {
+        List<MigrationCheckpoint> statuses = new ArrayList<>(migrations.size());
+        for (Migration migration : migrations) {
+            MigrationCheckpoint checkpoint = mongoTemplate.findById(migration.version(), MigrationCheckpoint.class);
+            statuses.add(checkpoint != null ? checkpoint : MigrationCheckpoint.builder()
+                    .version(migration.version())
+                    .description(migration.description())
+                    .status(MigrationCheckpoint.PENDING)
+                    .build());
+        }
+        return statuses;
+    }
+
+    private MigrationCheckpoint run(Migration migration, boolean dryRun) {
+        MigrationCheckpoint existing = mongoTemplate.findById(migration.version(), MigrationCheckpoint.class);
+        if (existing != null && MigrationCheckpoint.COMPLETED.equals(existing.getStatus())) {
+            return existing;
+        }
+
+        MigrationCheckpoint checkpoint;
+        if (dryRun) {
+            checkpoint = MigrationCheckpoint.builder()
+                    .version(migration.version())
+                    .description(migration.description())
+                    .status(MigrationCheckpoint.DRY_RUN)
+                    .lastId(existing != null ? existing.getLastId() : null)
+                    .build();
+        } else {
+            checkpoint = claim(migration);
+            if (checkpoint == null) {
+                log.info("Migration {} is held by another instance", migration.version());
+                return existing;
+            }
+        }
+
+        log.info("Migration {} ({}) {} from {}", migration.version(), migration.description(),
+                dryRun ? "dry run" : "starting", checkpoint.getLastId() != null ? checkpoint.getLastId() : "the start");
+        AdaptiveThrottle throttle = new AdaptiveThrottle(targetLatencyMillis, batchSize, minBatchSize, maxBatchSize);
+        try {
+            while (true) {
+                if (pauseRequested) {
+                    return finish(checkpoint, dryRun ? MigrationCheckpoint.DRY_RUN : MigrationCheckpoint.PAUSED);
+                }
+                long started = System.nanoTime();
+                if (!runBatch(migration, checkpoint, throttle.batchSize(), dryRun)) {
+                    break;
+                }
+                if (!dryRun && !saveProgress(checkpoint)) {
+                    log.warn("Migration {} lost its lease; stopping", migration.version());
+                    return checkpoint;
+                }
+                throttle.record((System.nanoTime() - started) / 1_000_000);
+                throttle.pause();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return finish(checkpoint, dryRun ? MigrationCheckpoint.DRY_RUN : MigrationCheckpoint.PAUSED);
+        } catch (RuntimeException e) {
+            log.error("Migration {} failed after {}", migration.version(), checkpoint.getLastId(), e);
+            checkpoint.setError(e.getMessage());
+            return finish(checkpoint, dryRun ? MigrationCheckpoint.DRY_RUN : MigrationCheckpoint.FAILED);
+        }
+
+        if (!dryRun) {
+            checkpoint.setCompletedAt(LocalDateTime.now());
+        }
+        MigrationCheckpoint done = finish(checkpoint, dryRun ? MigrationCheckpoint.DRY_RUN : MigrationCheckpoint.COMPLETED);
+        log.info("Migration {} {}: scanned {}, {} {}", migration.version(), done.getStatus(),
+                done.getScanned(), dryRun ? "would modify" : "modified", done.getModified());
+        return done;
+    }
+
+    /**
+     * Processes the next batch after the checkpoint. Returns false once nothing is left.
+     */
+    private boolean runBatch(Migration migration, MigrationCheckpoint checkpoint, int limit, boolean dryRun) {
+        Criteria criteria = migration.pending();
+        if (checkpoint.getLastId() != null) {
+            criteria = new Criteria().andOperator(criteria, Criteria.where("_id").gt(checkpoint.getLastId()));
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        query.fields().include(migration.fields());
+        List<Document> batch = mongoTemplate.find(query, Document.class, migration.collection());
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        BulkOperations bulk = null;
+        long updates = 0;
+        for (Document document : batch) {
+            Update update = migration.update(document);
+            if (update == null) {
+                continue;
+            }
+            updates++;
+            if (!dryRun) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, migration.collection());
+                }
+                bulk.updateOne(Query.query(new Criteria().andOperator(
+                        Criteria.where("_id").is(document.get("_id")), migration.pending())), update);
+            }
+        }
+
+        checkpoint.setModified(checkpoint.getModified() + (bulk != null ? bulk.execute().getModifiedCount() : updates));
+        checkpoint.setScanned(checkpoint.getScanned() + batch.size());
+        checkpoint.setLastId(batch.get(batch.size() - 1).get("_id"));
+        return true;
+    }
+
+    private MigrationCheckpoint claim(Migration migration) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(migration.version())
+                .and("status").ne(MigrationCheckpoint.COMPLETED)
+                .orOperator(
+                        Criteria.where("status").ne(MigrationCheckpoint.RUNNING),
+                        Criteria.where("owner").is(instanceId),
+                        Criteria.where("leaseExpiresAt").lt(now)));
+        Update update = new Update()
+                .set("description", migration.description())
+                .set("status", MigrationCheckpoint.RUNNING)
+                .set("owner", instanceId)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("updatedAt", now)
+                .unset("error")
+                .setOnInsert("startedAt", now)
+                .setOnInsert("scanned", 0L)
+                .setOnInsert("modified", 0L);
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), MigrationCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            // The checkpoint exists but is leased to a live instance
+            return null;
+        }
+    }
+
+    private boolean saveProgress(MigrationCheckpoint checkpoint) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("lastId", checkpoint.getLastId())
+                .set("scanned", checkpoint.getScanned())
+                .set("modified", checkpoint.getModified())
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("updatedAt", now);
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(checkpoint.getVersion())
+                .and("owner").is(instanceId)), update, MigrationCheckpoint.class).getMatchedCount() > 0;
+    }
+
+    private MigrationCheckpoint finish(MigrationCheckpoint checkpoint, String status) {
+        checkpoint.setStatus(status);
+        if (MigrationCheckpoint.DRY_RUN.equals(status)) {
+            return checkpoint;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setUpdatedAt(now);
+        Update update = new Update()
+                .set("status", status)
+                .set("lastId", checkpoint.getLastId())
+                .set("scanned", checkpoint.getScanned())
+                .set("modified", checkpoint.getModified())
+                .set("completedAt", checkpoint.getCompletedAt())
+                .set("error", checkpoint.getError())
+                .set("leaseExpiresAt", now)
+                .set("updatedAt", now);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(checkpoint.getVersion())
+                .and("owner").is(instanceId)), update, MigrationCheckpoint.class);
+        return checkpoint;
+    }
+}
@@ -1,9 +1,9 @@
 package com.expensetracker.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.AccessType;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -14,9 +14,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 @Document(collection = "expenses")
 @CompoundIndexes({
     @CompoundIndex(name = "owner_date_idx", def = "{'owner': 1, 'expenseDate': -1}"),
@@ -29,9 +27,18 @@ public class Expense {
 
     private String name;
 
+    /** Amount in minor units (cents); see {@link Money}. */
+    private long amountMinor;
+
+    /**
+     * The old double amount, still written with every save so a rollback to a
+     * release without amountMinor can read new expenses. Always derived from
+     * amountMinor and never read back; legacy rows are handled by
+     * LegacyAmountCallback. Remove once the rollback window has closed.
+     */
+    @AccessType(AccessType.Type.PROPERTY)
     private Double amount;
 
-    @Builder.Default
     private LocalDateTime expenseDate = LocalDateTime.now();
 
     private String category;
@@ -47,4 +54,30 @@ public class Expense {
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    /**
+     * The builder's constructor; amount is left out as it is derived.
+     */
+    @Builder
+    private Expense(String id, String name, long amountMinor, LocalDateTime expenseDate, String category,
+                    String paymentType, String comment, String owner, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.amountMinor = amountMinor;
+        this.expenseDate = expenseDate != null ? expenseDate : LocalDateTime.now();
+        this.category = category;
+        this.paymentType = paymentType;
+        this.comment = comment;
+        this.owner = owner;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Double getAmount() {
+        return Money.ofMinor(amountMinor).toDouble();
+    }
+
+    public void setAmount(Double amount) {
+        // Derived from amountMinor
+    }
 }
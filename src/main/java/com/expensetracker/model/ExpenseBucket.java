@@ -0,0 +1,51 @@
+package com.expensetracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One user's expenses for one calendar month, or one part of a busy month,
+ * embedded in a single document together with their count. Used by the
+ * bucket storage layout.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "expense_buckets")
+@CompoundIndexes({
+    @CompoundIndex(name = "owner_month_idx", def = "{'owner': 1, 'month': -1}"),
+    @CompoundIndex(name = "owner_month_part_idx", def = "{'owner': 1, 'month': 1, 'part': 1}", unique = true,
+            partialFilter = "{'part': {'$exists': true}}"),
+    @CompoundIndex(name = "owner_expense_id_idx", def = "{'owner': 1, 'expenses._id': 1}")
+})
+public class ExpenseBucket {
+
+    /** owner:month for the first part of a month, owner:month:n for later ones */
+    @Id
+    private String id;
+
+    private String owner;
+
+    /** yyyy-MM */
+    private String month;
+
+    /** 0 for a month's first bucket, then 1, 2... once it holds too many expenses */
+    @Builder.Default
+    private Integer part = 0;
+
+    @Builder.Default
+    private Long count = 0L;
+
+    @Builder.Default
+    private List<Expense> expenses = new ArrayList<>();
+}
@@ -0,0 +1,42 @@
+package com.expensetracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored outcome of a request sent with an Idempotency-Key. Expired by a
+ * TTL index on createdAt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    /** userId:key, so keys are scoped to the user that sent them */
+    @Id
+    private String id;
+
+    /** Hash of the operation and request body the key was first used with */
+    private String fingerprint;
+
+    private String status;
+
+    /** The response data as JSON, once completed */
+    private String body;
+
+    /** An in-progress record left by a crashed instance can be taken over after this */
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,109 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of minor units (cents), so sums
+ * and comparisons are exact. On the API it reads and writes as a plain
+ * decimal number, the same JSON the old Double amounts produced.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final double MINOR_PER_MAJOR = 100.0;
+
+    /** Cheap bound before building the unscaled value of a huge number like 1e100000 */
+    private static final int MAX_MAJOR_DIGITS = 17;
+
+    private final long minor;
+
+    private Money(long minor) {
+        this.minor = minor;
+    }
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    /**
+     * Parses an API amount; anything beyond two decimals is rounded half up.
+     *
+     * @throws IllegalArgumentException if the amount does not fit in a long of minor units
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        if (amount.precision() - amount.scale() > MAX_MAJOR_DIGITS) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+        try {
+            return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+    }
+
+    /**
+     * Minor units for an amount stored by the old schema as a double. Rounds
+     * half to even on the scaled double, exactly as Mongo's $round does, so
+     * in-memory and aggregation fallbacks agree.
+     */
+    public static long minorFromLegacy(double amount) {
+        return (long) Math.rint(amount * MINOR_PER_MAJOR);
+    }
+
+    /**
+     * Mean of a total over a count in major units, not rounded to a minor
+     * unit, the same number the stats endpoint returned when $avg computed it.
+     */
+    public static double average(long totalMinor, long count) {
+        return totalMinor / (count * MINOR_PER_MAJOR);
+    }
+
+    public long getMinor() {
+        return minor;
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * The wire form. Dividing an exact integer by 100 gives the double closest
+     * to the decimal amount, which prints as that decimal.
+     */
+    @JsonValue
+    public double toDouble() {
+        return minor / MINOR_PER_MAJOR;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).minor == minor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
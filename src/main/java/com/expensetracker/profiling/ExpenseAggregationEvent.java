@@ -0,0 +1,24 @@
+package com.expensetracker.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.expensetracker.ExpenseAggregation")
+@Label("Expense Aggregation")
+@Category({"Expense Tracker", "Storage"})
+@Description("A stats or analytics aggregate over a user's expenses")
+public class ExpenseAggregationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Rows")
+    @Description("Result rows, such as one per category")
+    public int rows;
+}
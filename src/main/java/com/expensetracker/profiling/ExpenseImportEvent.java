@@ -0,0 +1,18 @@
+package com.expensetracker.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.expensetracker.ExpenseImport")
+@Label("Expense Import")
+@Category({"Expense Tracker", "Service"})
+public class ExpenseImportEvent extends Event {
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,24 @@
+package com.expensetracker.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.expensetracker.ExpenseQuery")
+@Label("Expense Query")
+@Category({"Expense Tracker", "Storage"})
+@Description("A read or write through the expense store")
+public class ExpenseQueryEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Rows")
+    @Description("Expenses returned, or -1 when the call does not return rows")
+    public int rows;
+}
@@ -0,0 +1,96 @@
+package com.expensetracker.profiling;
+
+import com.expensetracker.exception.ApiException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes time-boxed Java Flight Recorder recordings of the running node, so
+ * allocation, lock contention and the application's own events can be
+ * profiled without restarting it with an agent. One recording runs at a time.
+ */
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    private static final List<String> SETTINGS = List.of("default", "profile");
+
+    private static final List<Class<? extends Event>> APPLICATION_EVENTS = List.of(
+            ExpenseQueryEvent.class, ExpenseAggregationEvent.class, ExpenseImportEvent.class,
+            TokenVerificationEvent.class, MongoCommandEvent.class);
+
+    @Value("${app.profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.profiling.max-seconds:300}")
+    private long maxSeconds;
+
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    /**
+     * Records for the given duration with the JDK's "default" (low overhead)
+     * or "profile" (more detail, such as allocation and lock samples) settings
+     * plus the application events, and returns the .jfr file. The caller
+     * deletes it.
+     */
+    public Path record(long seconds, String settings) throws IOException {
+        if (!enabled) {
+            throw new ApiException(404, "Profiling is disabled");
+        }
+        if (seconds < 1 || seconds > maxSeconds) {
+            throw new ApiException(400, "seconds must be between 1 and " + maxSeconds);
+        }
+        if (!SETTINGS.contains(settings)) {
+            throw new ApiException(400, "settings must be default or profile");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Could not read JFR settings " + settings, e);
+        }
+        if (!recording.compareAndSet(false, true)) {
+            throw new ApiException(409, "A recording is already running");
+        }
+
+        Path file = null;
+        try (Recording jfr = new Recording(configuration)) {
+            file = Files.createTempFile("expense-tracker-", ".jfr");
+            for (Class<? extends Event> event : APPLICATION_EVENTS) {
+                jfr.enable(event);
+            }
+            jfr.setName("admin-" + settings + "-" + seconds + "s");
+            jfr.setToDisk(true);
+            log.info("Starting {} s flight recording with {} settings", seconds, settings);
+            jfr.start();
+            try {
+                Thread.sleep(Duration.ofSeconds(seconds).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jfr.stop();
+            jfr.dump(file);
+            log.info("Flight recording finished: {} bytes", Files.size(file));
+            return file;
+        } catch (IOException | RuntimeException e) {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        } finally {
+            recording.set(false);
+        }
+    }
+}
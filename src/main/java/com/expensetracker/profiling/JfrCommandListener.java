@@ -0,0 +1,67 @@
+package com.expensetracker.profiling;
+
+import com.expensetracker.metrics.MongoResponses;
+import com.expensetracker.metrics.QueryShape;
+import com.expensetracker.metrics.RequestUser;
+import com.expensetracker.metrics.StoreOperation;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits a {@link MongoCommandEvent} per Mongo command while a flight
+ * recording that includes it is running. Otherwise each command costs one
+ * isEnabled check.
+ */
+@Component
+public class JfrCommandListener implements CommandListener {
+
+    private static final int MAX_PENDING = 10_000;
+
+    private final Map<Integer, MongoCommandEvent> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoCommandEvent jfrEvent = new MongoCommandEvent();
+        if (!jfrEvent.isEnabled() || pending.size() >= MAX_PENDING) {
+            return;
+        }
+        jfrEvent.begin();
+        jfrEvent.command = event.getCommandName();
+        jfrEvent.shape = QueryShape.of(event.getCommandName(), event.getCommand());
+        jfrEvent.operation = StoreOperation.current();
+        jfrEvent.userId = RequestUser.current();
+        pending.put(event.getRequestId(), jfrEvent);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        MongoCommandEvent jfrEvent = pending.remove(event.getRequestId());
+        if (jfrEvent == null) {
+            return;
+        }
+        jfrEvent.end();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.documents = MongoResponses.documentsReturned(event.getResponse());
+            jfrEvent.commit();
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        MongoCommandEvent jfrEvent = pending.remove(event.getRequestId());
+        if (jfrEvent == null) {
+            return;
+        }
+        jfrEvent.end();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.failed = true;
+            jfrEvent.commit();
+        }
+    }
+}
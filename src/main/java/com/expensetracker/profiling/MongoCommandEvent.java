@@ -0,0 +1,34 @@
+package com.expensetracker.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.expensetracker.MongoCommand")
+@Label("Mongo Command")
+@Category({"Expense Tracker", "Storage"})
+@Description("A command sent to MongoDB, with its query shape")
+public class MongoCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Shape")
+    @Description("Collection, command and filter or pipeline with literals replaced by ?")
+    public String shape;
+
+    @Label("Operation")
+    @Description("The store method that issued the command")
+    public String operation;
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Documents Returned")
+    public int documents;
+
+    @Label("Failed")
+    public boolean failed;
+}
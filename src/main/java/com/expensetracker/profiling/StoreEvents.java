@@ -0,0 +1,58 @@
+package com.expensetracker.profiling;
+
+import com.expensetracker.metrics.RequestUser;
+import jdk.jfr.Event;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Emits an {@link ExpenseAggregationEvent} for the expense store's aggregate
+ * methods and an {@link ExpenseQueryEvent} for the rest, around each call.
+ */
+public final class StoreEvents {
+
+    private static final Set<String> AGGREGATIONS = Set.of(
+            "aggregate", "categoryTotals", "amountTotals", "dailyCategoryTotals", "findAnalyticsFields");
+
+    private StoreEvents() {
+    }
+
+    public static Event begin(String method) {
+        Event event = AGGREGATIONS.contains(method) ? new ExpenseAggregationEvent() : new ExpenseQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void commit(Event event, String operation, Object result) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        if (event instanceof ExpenseAggregationEvent aggregation) {
+            aggregation.operation = operation;
+            aggregation.userId = RequestUser.current();
+            aggregation.rows = rows(result);
+        } else if (event instanceof ExpenseQueryEvent query) {
+            query.operation = operation;
+            query.userId = RequestUser.current();
+            query.rows = rows(result);
+        }
+        event.commit();
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
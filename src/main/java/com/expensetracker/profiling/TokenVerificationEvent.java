@@ -0,0 +1,18 @@
+package com.expensetracker.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.expensetracker.TokenVerification")
+@Label("Token Verification")
+@Category({"Expense Tracker", "Security"})
+public class TokenVerificationEvent extends Event {
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Valid")
+    public boolean valid;
+}
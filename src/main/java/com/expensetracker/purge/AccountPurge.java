@@ -0,0 +1,55 @@
+package com.expensetracker.purge;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued removal of everything a deleted account owned, keyed by the
+ * account's id so enqueuing the same owner twice is a no-op.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "account_purges")
+public class AccountPurge {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+
+    /** Id of the deleted user, which is the owner of the documents to remove */
+    @Id
+    private String userId;
+
+    @Indexed
+    private String status;
+
+    /** Why the purge was queued: account-deleted or orphan-sweep */
+    private String reason;
+
+    private String worker;
+
+    private LocalDateTime leaseExpiresAt;
+
+    private int attempts;
+
+    private long expensesDeleted;
+
+    private long bucketsDeleted;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    private String error;
+}
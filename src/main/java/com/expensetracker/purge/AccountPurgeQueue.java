@@ -0,0 +1,13 @@
+package com.expensetracker.purge;
+
+/**
+ * Where a deleted account's data is queued for purging, independent of the backend.
+ */
+public interface AccountPurgeQueue {
+
+    /**
+     * Queues a purge of the owner's data. A purge already queued or running
+     * for the same owner is left as it is; a completed one is queued again.
+     */
+    void enqueue(String userId, String reason);
+}
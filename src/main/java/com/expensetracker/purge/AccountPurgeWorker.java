@@ -0,0 +1,165 @@
+package com.expensetracker.purge;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.migration.AdaptiveThrottle;
+import com.expensetracker.repository.BucketExpenseStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Works through queued {@link AccountPurge}s, deleting the owner's expenses
+ * and expense buckets a bounded batch of _ids at a time.
+ *
+ * A purge is claimed with a lease that every batch extends. If the worker
+ * dies, the lease lapses and any instance picks the purge up again; since
+ * each batch just deletes whatever the owner still has, nothing needs to be
+ * checkpointed beyond the counters.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "mongo", matchIfMissing = true)
+public class AccountPurgeWorker {
+
+    private static final String EXPENSES = "expenses";
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final String workerId = UUID.randomUUID().toString();
+
+    @Value("${app.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.purge.max-batch-size:2000}")
+    private int maxBatchSize;
+
+    @Value("${app.purge.target-latency-ms:50}")
+    private long targetLatencyMillis;
+
+    @Value("${app.purge.lease-seconds:60}")
+    private long leaseSeconds;
+
+    private volatile boolean stopping;
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.poll-interval-ms:10000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        AccountPurge purge;
+        while (!stopping && (purge = claim()) != null) {
+            run(purge);
+        }
+    }
+
+    private AccountPurge claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("status").is(AccountPurge.PENDING),
+                Criteria.where("status").is(AccountPurge.RUNNING).and("leaseExpiresAt").lt(now)));
+        Update update = new Update()
+                .set("status", AccountPurge.RUNNING)
+                .set("worker", workerId)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("startedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), AccountPurge.class);
+    }
+
+    private void run(AccountPurge purge) {
+        String owner = purge.getUserId();
+        AdaptiveThrottle throttle = new AdaptiveThrottle(targetLatencyMillis, batchSize, 1, maxBatchSize);
+        try {
+            long expenses = purgeCollection(purge, EXPENSES, "expensesDeleted", throttle);
+            long buckets = purgeCollection(purge, BucketExpenseStore.COLLECTION, "bucketsDeleted", throttle);
+            if (expenses < 0 || buckets < 0) {
+                return;
+            }
+            mongoTemplate.updateFirst(leased(owner), new Update()
+                    .set("status", AccountPurge.COMPLETED)
+                    .set("completedAt", LocalDateTime.now())
+                    .unset("leaseExpiresAt")
+                    .unset("error"), AccountPurge.class);
+            invalidationBus.invalidate(owner);
+            log.info("Purged {} expenses and {} buckets of deleted account {}",
+                    purge.getExpensesDeleted(), purge.getBucketsDeleted(), owner);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Leave the lease to lapse so the purge is retried
+            log.error("Purge of account {} failed; it will be retried", owner, e);
+            mongoTemplate.updateFirst(leased(owner), new Update().set("error", e.getMessage()), AccountPurge.class);
+        }
+    }
+
+    /**
+     * Deletes the owner's documents from one collection in throttled batches.
+     * Returns the number deleted, or -1 when the purge was stopped or its lease lost.
+     */
+    private long purgeCollection(AccountPurge purge, String collection, String counter, AdaptiveThrottle throttle)
+            throws InterruptedException {
+        long deleted = 0;
+        while (true) {
+            if (stopping) {
+                return -1;
+            }
+            long started = System.nanoTime();
+            Query query = Query.query(Criteria.where("owner").is(purge.getUserId())).limit(throttle.batchSize());
+            query.fields().include("_id");
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                return deleted;
+            }
+            List<Object> ids = new ArrayList<>(batch.size());
+            for (Document document : batch) {
+                ids.add(document.get("_id"));
+            }
+            long removed = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+            deleted += removed;
+
+            boolean stillLeased = mongoTemplate.updateFirst(leased(purge.getUserId()), new Update()
+                    .inc(counter, removed)
+                    .set("leaseExpiresAt", LocalDateTime.now().plusSeconds(leaseSeconds)), AccountPurge.class)
+                    .getMatchedCount() > 0;
+            if (EXPENSES.equals(collection)) {
+                purge.setExpensesDeleted(purge.getExpensesDeleted() + removed);
+            } else {
+                purge.setBucketsDeleted(purge.getBucketsDeleted() + removed);
+            }
+            if (!stillLeased) {
+                log.warn("Lost the lease on the purge of account {}", purge.getUserId());
+                return -1;
+            }
+            throttle.record((System.nanoTime() - started) / 1_000_000);
+            throttle.pause();
+        }
+    }
+
+    private Query leased(String owner) {
+        return Query.query(Criteria.where("_id").is(owner).and("worker").is(workerId));
+    }
+}
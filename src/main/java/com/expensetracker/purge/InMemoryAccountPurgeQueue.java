@@ -0,0 +1,16 @@
+package com.expensetracker.purge;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queues nothing: the in-memory user store drops a deleted user's expenses itself.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "memory")
+public class InMemoryAccountPurgeQueue implements AccountPurgeQueue {
+
+    @Override
+    public void enqueue(String userId, String reason) {
+    }
+}
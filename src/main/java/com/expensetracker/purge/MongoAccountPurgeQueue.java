@@ -0,0 +1,37 @@
+package com.expensetracker.purge;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Purges queued in the account_purges collection for {@link AccountPurgeWorker}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "mongo", matchIfMissing = true)
+public class MongoAccountPurgeQueue implements AccountPurgeQueue {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void enqueue(String userId, String reason) {
+        Update update = new Update()
+                .setOnInsert("reason", reason)
+                .setOnInsert("createdAt", LocalDateTime.now())
+                .set("status", AccountPurge.PENDING);
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)
+                    .and("status").nin(AccountPurge.PENDING, AccountPurge.RUNNING)), update, AccountPurge.class);
+        } catch (DuplicateKeyException e) {
+            // Already pending or running
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.expensetracker.purge;
+
+import com.expensetracker.repository.BucketExpenseStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * One-off pass that queues a purge for every owner with expenses or buckets
+ * but no user document, left behind by account deletions from before purges
+ * existed. The deletes themselves go through {@link AccountPurgeWorker}, so
+ * they are throttled and resumable like any other purge.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.purge.orphan-sweep.enabled", havingValue = "true")
+public class OrphanExpenseSweeper implements ApplicationRunner {
+
+    private static final String REASON = "orphan-sweep";
+
+    private final MongoTemplate mongoTemplate;
+    private final AccountPurgeQueue purgeQueue;
+
+    @Value("${app.purge.orphan-sweep.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        int queued = 0;
+        for (String collection : List.of("expenses", BucketExpenseStore.COLLECTION)) {
+            queued += sweep(collection);
+        }
+        log.info("Orphan sweep queued {} purges in {} ms", queued, System.currentTimeMillis() - started);
+    }
+
+    private int sweep(String collection) {
+        // Sorting on owner first lets the group walk the owner index instead of the documents
+        Aggregation distinctOwners = Aggregation.newAggregation(
+                Aggregation.sort(Sort.Direction.ASC, "owner"),
+                Aggregation.group("owner")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        int queued = 0;
+        List<String> owners = new ArrayList<>(batchSize);
+        try (Stream<Document> stream = mongoTemplate.aggregateStream(distinctOwners, collection, Document.class)) {
+            Iterator<Document> rows = stream.iterator();
+            while (rows.hasNext()) {
+                Object owner = rows.next().get("_id");
+                if (owner instanceof String) {
+                    owners.add((String) owner);
+                }
+                if (owners.size() >= batchSize || !rows.hasNext()) {
+                    queued += queueMissing(owners);
+                    owners.clear();
+                }
+            }
+        }
+        return queued;
+    }
+
+    private int queueMissing(List<String> owners) {
+        if (owners.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = new ArrayList<>(owners.size());
+        for (String owner : owners) {
+            ids.add(ObjectId.isValid(owner) ? new ObjectId(owner) : owner);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> existing = new HashSet<>();
+        for (Document user : mongoTemplate.find(query, Document.class, "users")) {
+            Object id = user.get("_id");
+            existing.add(id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id));
+        }
+
+        int queued = 0;
+        for (String owner : owners) {
+            if (!existing.contains(owner)) {
+                purgeQueue.enqueue(owner, REASON);
+                queued++;
+            }
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,373 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.codec.ExpenseCodec;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Bucket layout: each user's expenses for a calendar month live in an
+ * {@link ExpenseBucket} document with a precomputed count, so a month of
+ * history is one or a few sequential reads and date-ordered pages can skip
+ * whole months. Owner and month are indexed
+ * once per bucket rather than once per expense; the index on expenses._id is
+ * multikey and still has an entry per expense.
+ *
+ * A bucket holds at most {@link #MAX_EXPENSES_PER_BUCKET} expenses, well under
+ * the 16 MB document limit; a busier month spills into further parts, each
+ * with the deterministic id from {@link #bucketId(String, String, int)}, so
+ * concurrent writers and the layout migration agree on which bucket is which.
+ * Updates and moves are conditional on the stored updatedAt and retried when
+ * another write got there first, so the bucket counts stay exact.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${app.storage.backend:mongo}' == 'mongo' and '${app.storage.expense-layout:document}' == 'bucket'")
+public class BucketExpenseStore extends MongoExpenseStore {
+
+    public static final String COLLECTION = "expense_buckets";
+
+    public static final int MAX_EXPENSES_PER_BUCKET = 1000;
+
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int UPDATE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    public static String monthOf(LocalDateTime date) {
+        return date.format(MONTH_FORMATTER);
+    }
+
+    public static String bucketId(String owner, String month) {
+        return owner + ":" + month;
+    }
+
+    /** The id of a month's further buckets: the first is {@link #bucketId}, then ":1", ":2"... */
+    public static String bucketId(String owner, String month, int part) {
+        return part == 0 ? bucketId(owner, month) : bucketId(owner, month) + ":" + part;
+    }
+
+    /**
+     * One bucket per owner, month and part. Buckets written before parts
+     * existed have no part field and are left out of the index.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(ExpenseBucket.class).ensureIndex(new Index()
+                .on("owner", Sort.Direction.ASC)
+                .on("month", Sort.Direction.ASC)
+                .on("part", Sort.Direction.ASC)
+                .named("owner_month_part_idx")
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("part").exists(true))));
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        LocalDateTime now = LocalDateTime.now();
+        if (expense.getId() == null) {
+            expense.setId(new ObjectId().toHexString());
+            expense.setCreatedAt(now);
+            expense.setUpdatedAt(now);
+            push(expense.getOwner(), monthOf(expense.getExpenseDate()), List.of(expense));
+            return expense;
+        }
+
+        expense.setUpdatedAt(now);
+        for (int attempt = 0; attempt < UPDATE_ATTEMPTS; attempt++) {
+            Expense previous = findByIdAndOwner(expense.getId(), expense.getOwner()).orElse(null);
+            if (previous == null) {
+                push(expense.getOwner(), monthOf(expense.getExpenseDate()), List.of(expense));
+                return expense;
+            }
+
+            if (monthOf(previous.getExpenseDate()).equals(monthOf(expense.getExpenseDate()))) {
+                Update update = new Update().set("expenses.$", expense);
+                if (mongoTemplate.updateFirst(unchanged(previous), update, ExpenseBucket.class).getModifiedCount() > 0) {
+                    return expense;
+                }
+            } else if (pull(previous)) {
+                push(expense.getOwner(), monthOf(expense.getExpenseDate()), List.of(expense));
+                return expense;
+            }
+        }
+        throw new OptimisticLockingFailureException("Expense " + expense.getId() + " kept changing while being saved");
+    }
+
+    /**
+     * Pushes each month's expenses in chunks of at most a bucket, one upsert per chunk.
+     */
+    @Override
+    public List<Expense> saveAll(List<Expense> expenses) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<Expense>> byBucket = new LinkedHashMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getId() == null) {
+                expense.setId(new ObjectId().toHexString());
+            }
+            expense.setCreatedAt(now);
+            expense.setUpdatedAt(now);
+            byBucket.computeIfAbsent(bucketId(expense.getOwner(), monthOf(expense.getExpenseDate())), k -> new ArrayList<>())
+                    .add(expense);
+        }
+
+        for (List<Expense> monthExpenses : byBucket.values()) {
+            Expense first = monthExpenses.get(0);
+            for (int from = 0; from < monthExpenses.size(); from += MAX_EXPENSES_PER_BUCKET) {
+                push(first.getOwner(), monthOf(first.getExpenseDate()),
+                        monthExpenses.subList(from, Math.min(monthExpenses.size(), from + MAX_EXPENSES_PER_BUCKET)));
+            }
+        }
+        return expenses;
+    }
+
+    @Override
+    public Optional<Expense> findByIdAndOwner(String id, String owner) {
+        Query query = Query.query(Criteria.where("owner").is(owner).and("expenses._id").is(toObjectId(id)));
+        query.fields().elemMatch("expenses", Criteria.where("_id").is(toObjectId(id)));
+        ExpenseBucket bucket = mongoTemplate.findOne(query, ExpenseBucket.class);
+        if (bucket == null || bucket.getExpenses() == null || bucket.getExpenses().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(bucket.getExpenses().get(0));
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        Expense current = expense;
+        for (int attempt = 0; attempt < UPDATE_ATTEMPTS && current != null; attempt++) {
+            if (pull(current)) {
+                return;
+            }
+            // Changed since it was read: pull what is stored now
+            current = findByIdAndOwner(expense.getId(), expense.getOwner()).orElse(null);
+        }
+        if (current != null) {
+            throw new OptimisticLockingFailureException("Expense " + expense.getId() + " kept changing while being deleted");
+        }
+    }
+
+    @Override
+    public List<Expense> findPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        boolean unfiltered = (category == null || category.isEmpty()) && (startDate == null || endDate == null);
+        Sort.Order dateOrder = pageable.getSort().getOrderFor("expenseDate");
+        if (unfiltered && dateOrder != null && pageable.getSort().stream().count() == 1) {
+            return findDatePage(owner, dateOrder.getDirection(), pageable);
+        }
+
+        // Same bounds as the derived "Between" queries of the document layout, which are exclusive
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (category != null && !category.isEmpty()) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (startDate != null && endDate != null) {
+            criteria = criteria.and("expenseDate").gt(startDate).lt(endDate);
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(criteria));
+        stages.add(Aggregation.sort(pageable.getSort()));
+        stages.add(Aggregation.skip(pageable.getOffset()));
+        stages.add(Aggregation.limit(pageable.getPageSize()));
+        // A lone bound is ignored here, as the contract says, so it must not prune buckets either
+        boolean bounded = startDate != null && endDate != null;
+        return run(bucketCriteria(owner, bounded ? startDate : null, bounded ? endDate : null), stages, Expense.class);
+    }
+
+    @Override
+    public List<Expense> findByOwner(String owner) {
+        return run(bucketCriteria(owner, null, null), List.of(), Expense.class);
+    }
+
+    @Override
+    public List<Expense> findByOwnerAndExpenseDateAfter(String owner, LocalDateTime date) {
+        List<AggregationOperation> stages = List.of(Aggregation.match(Criteria.where("expenseDate").gt(date)));
+        return run(bucketCriteria(owner, date, null), stages, Expense.class);
+    }
+
+    @Override
+    public void streamPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                           Pageable pageable, Consumer<RawBsonDocument> consumer) {
+        for (Expense expense : findPage(owner, category, startDate, endDate, pageable)) {
+            consumer.accept(ExpenseCodec.toRawDocument(expense));
+        }
+    }
+
+    @Override
+    public void streamAfter(String owner, LocalDateTime date, Consumer<RawBsonDocument> consumer) {
+        for (Expense expense : date != null ? findByOwnerAndExpenseDateAfter(owner, date) : findByOwner(owner)) {
+            consumer.accept(ExpenseCodec.toRawDocument(expense));
+        }
+    }
+
+    @Override
+    public <T> List<T> aggregate(String owner, LocalDateTime startDate, LocalDateTime endDate,
+                                 List<AggregationOperation> stages, Class<T> outputType) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (startDate != null || endDate != null) {
+            pipeline.add(Aggregation.match(ExpenseCriteria.dateRange(new Criteria(), "expenseDate", startDate, endDate)));
+        }
+        pipeline.addAll(stages);
+        return run(bucketCriteria(owner, startDate, endDate), pipeline, outputType);
+    }
+
+    /**
+     * Date-ordered pages without filters use the bucket counts to skip whole
+     * months, so only the buckets that hold the page are unwound.
+     */
+    private List<Expense> findDatePage(String owner, Sort.Direction direction, Pageable pageable) {
+        Query countsQuery = Query.query(Criteria.where("owner").is(owner))
+                .with(Sort.by(direction, "month"));
+        countsQuery.fields().include("month", "count");
+        // A month may span several buckets; the page arithmetic is per month
+        Map<String, Long> monthCounts = new LinkedHashMap<>();
+        for (ExpenseBucket bucket : mongoTemplate.find(countsQuery, ExpenseBucket.class)) {
+            monthCounts.merge(bucket.getMonth(), bucket.getCount() != null ? bucket.getCount() : 0, Long::sum);
+        }
+
+        long skip = pageable.getOffset();
+        long firstSkip = 0;
+        long remaining = pageable.getPageSize();
+        List<String> months = new ArrayList<>();
+        for (Map.Entry<String, Long> month : monthCounts.entrySet()) {
+            long count = month.getValue();
+            if (months.isEmpty()) {
+                if (skip >= count) {
+                    skip -= count;
+                    continue;
+                }
+                firstSkip = skip;
+                remaining -= count - skip;
+            } else {
+                remaining -= count;
+            }
+            months.add(month.getKey());
+            if (remaining <= 0) {
+                break;
+            }
+        }
+        if (months.isEmpty()) {
+            return List.of();
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.sort(Sort.by(direction, "expenseDate")));
+        stages.add(Aggregation.skip(firstSkip));
+        stages.add(Aggregation.limit(pageable.getPageSize()));
+        Criteria criteria = Criteria.where("owner").is(owner).and("month").in(months);
+        return run(criteria, stages, Expense.class);
+    }
+
+    private <T> List<T> run(Criteria bucketCriteria, List<AggregationOperation> stages, Class<T> outputType) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(bucketCriteria));
+        pipeline.add(Aggregation.unwind("expenses"));
+        pipeline.add(Aggregation.replaceRoot("expenses"));
+        pipeline.addAll(stages);
+        Aggregation aggregation = Aggregation.newAggregation(pipeline)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, COLLECTION, outputType).getMappedResults();
+    }
+
+    private static Criteria bucketCriteria(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (startDate != null && endDate != null) {
+            return criteria.and("month").gte(monthOf(startDate)).lte(monthOf(endDate));
+        } else if (startDate != null) {
+            return criteria.and("month").gte(monthOf(startDate));
+        } else if (endDate != null) {
+            return criteria.and("month").lte(monthOf(endDate));
+        }
+        return criteria;
+    }
+
+    /**
+     * Adds the expenses to the month's first part with room for all of them,
+     * creating that part if it does not exist yet.
+     */
+    private void push(String owner, String month, List<Expense> expenses) {
+        Update update = new Update()
+                .push("expenses").each(expenses.toArray())
+                .inc("count", expenses.size());
+        for (int part = 0; ; part++) {
+            Query query = withRoomFor(owner, month, part, expenses.size());
+            try {
+                mongoTemplate.upsert(query, update, ExpenseBucket.class);
+                return;
+            } catch (DuplicateKeyException e) {
+                // The part exists: it is full, or another write created it just now
+                if (mongoTemplate.updateFirst(query, update, ExpenseBucket.class).getModifiedCount() > 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The given part of the month while it has room for that many more
+     * expenses. Its equality fields become the new bucket when upserting.
+     */
+    private static Query withRoomFor(String owner, String month, int part, int expenses) {
+        return Query.query(Criteria.where("_id").is(bucketId(owner, month, part))
+                .and("owner").is(owner)
+                .and("month").is(month)
+                .and("part").is(part)
+                .and("count").lte(MAX_EXPENSES_PER_BUCKET - expenses));
+    }
+
+    /** Matches the expense's bucket only while the expense is as it was read */
+    private static Query unchanged(Expense expense) {
+        return Query.query(Criteria.where("owner").is(expense.getOwner())
+                .and("month").is(monthOf(expense.getExpenseDate()))
+                .and("expenses").elemMatch(Criteria.where("_id").is(toObjectId(expense.getId()))
+                        .and("updatedAt").is(expense.getUpdatedAt())));
+    }
+
+    /**
+     * Removes the expense from its bucket, dropping the bucket once empty.
+     * False when the stored expense has changed since it was read.
+     */
+    private boolean pull(Expense expense) {
+        Update update = new Update()
+                .pull("expenses", new Document("_id", toObjectId(expense.getId())))
+                .inc("count", -1);
+        if (mongoTemplate.updateFirst(unchanged(expense), update, ExpenseBucket.class).getModifiedCount() == 0) {
+            return false;
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("owner").is(expense.getOwner())
+                .and("month").is(monthOf(expense.getExpenseDate())).and("count").lte(0)), ExpenseBucket.class);
+        return true;
+    }
+
+    private static Object toObjectId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,192 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.codec.EntityCodecs;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The original layout: one document per expense in the expenses collection.
+ *
+ * With app.storage.codecs.enabled the hot paths read and write through the
+ * hand-written codecs instead of the repository, with the same filters the
+ * derived queries use (date bounds are exclusive, like "Between").
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${app.storage.backend:mongo}' == 'mongo' and '${app.storage.expense-layout:document}' == 'document'")
+public class DocumentExpenseStore extends MongoExpenseStore {
+
+    private final ExpenseRepository expenseRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCodecs entityCodecs;
+
+    @Override
+    public Expense save(Expense expense) {
+        if (!entityCodecs.isEnabled()) {
+            return expenseRepository.save(expense);
+        }
+        // Stands in for the auditing callbacks the repository would run
+        LocalDateTime now = LocalDateTime.now();
+        expense.setUpdatedAt(now);
+        if (expense.getId() == null) {
+            expense.setId(new ObjectId().toHexString());
+            expense.setCreatedAt(now);
+            entityCodecs.insert(List.of(expense), Expense.class);
+        } else {
+            entityCodecs.replace(expense.getId(), expense, Expense.class);
+        }
+        return expense;
+    }
+
+    @Override
+    public List<Expense> saveAll(List<Expense> expenses) {
+        // Stands in for the auditing callbacks, which treat an expense with an id as existing
+        LocalDateTime now = LocalDateTime.now();
+        for (Expense expense : expenses) {
+            if (expense.getId() == null) {
+                expense.setId(new ObjectId().toHexString());
+            }
+            expense.setCreatedAt(now);
+            expense.setUpdatedAt(now);
+        }
+        if (!entityCodecs.isEnabled()) {
+            return expenseRepository.insert(expenses);
+        }
+        entityCodecs.insert(expenses, Expense.class);
+        return expenses;
+    }
+
+    @Override
+    public Optional<Expense> findByIdAndOwner(String id, String owner) {
+        if (!entityCodecs.isEnabled()) {
+            return expenseRepository.findByIdAndOwner(id, owner);
+        }
+        Query query = Query.query(Criteria.where("id").is(id).and("owner").is(owner));
+        return Optional.ofNullable(entityCodecs.findOne(query, Expense.class));
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        expenseRepository.delete(expense);
+    }
+
+    @Override
+    public List<Expense> findPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        if (entityCodecs.isEnabled()) {
+            return entityCodecs.find(pageQuery(owner, category, startDate, endDate, pageable), Expense.class, Expense.class);
+        }
+
+        Page<Expense> expenses;
+
+        if (category != null && !category.isEmpty() && startDate != null && endDate != null) {
+            expenses = expenseRepository.findByOwnerAndCategoryAndExpenseDateBetween(owner, category, startDate, endDate, pageable);
+        } else if (category != null && !category.isEmpty()) {
+            expenses = expenseRepository.findByOwnerAndCategory(owner, category, pageable);
+        } else if (startDate != null && endDate != null) {
+            expenses = expenseRepository.findByOwnerAndExpenseDateBetween(owner, startDate, endDate, pageable);
+        } else {
+            expenses = expenseRepository.findByOwner(owner, pageable);
+        }
+
+        return expenses.getContent();
+    }
+
+    @Override
+    public List<Expense> findByOwner(String owner) {
+        if (entityCodecs.isEnabled()) {
+            return entityCodecs.find(afterQuery(owner, null), Expense.class, Expense.class);
+        }
+        return expenseRepository.findByOwner(owner);
+    }
+
+    @Override
+    public List<Expense> findByOwnerAndExpenseDateAfter(String owner, LocalDateTime date) {
+        if (entityCodecs.isEnabled()) {
+            return entityCodecs.find(afterQuery(owner, date), Expense.class, Expense.class);
+        }
+        return expenseRepository.findByOwnerAndExpenseDateAfter(owner, date);
+    }
+
+    @Override
+    public Optional<List<ExpenseResponse>> findResponsePage(String owner, String category, LocalDateTime startDate,
+                                                            LocalDateTime endDate, Pageable pageable) {
+        if (!entityCodecs.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(entityCodecs.find(pageQuery(owner, category, startDate, endDate, pageable),
+                Expense.class, ExpenseResponse.class));
+    }
+
+    @Override
+    public Optional<List<ExpenseResponse>> findResponsesAfter(String owner, LocalDateTime date) {
+        if (!entityCodecs.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(entityCodecs.find(afterQuery(owner, date), Expense.class, ExpenseResponse.class));
+    }
+
+    @Override
+    public boolean supportsRawDocuments() {
+        return true;
+    }
+
+    @Override
+    public void streamPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                           Pageable pageable, Consumer<RawBsonDocument> consumer) {
+        entityCodecs.forEach(pageQuery(owner, category, startDate, endDate, pageable), Expense.class,
+                RawBsonDocument.class, consumer);
+    }
+
+    @Override
+    public void streamAfter(String owner, LocalDateTime date, Consumer<RawBsonDocument> consumer) {
+        entityCodecs.forEach(afterQuery(owner, date), Expense.class, RawBsonDocument.class, consumer);
+    }
+
+    @Override
+    public <T> List<T> aggregate(String owner, LocalDateTime startDate, LocalDateTime endDate,
+                                 List<AggregationOperation> stages, Class<T> outputType) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(ExpenseCriteria.forOwner(owner, null, startDate, endDate)));
+        pipeline.addAll(stages);
+        return mongoTemplate.aggregate(Aggregation.newAggregation(pipeline), "expenses", outputType)
+                .getMappedResults();
+    }
+
+    private static Query pageQuery(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                   Pageable pageable) {
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (category != null && !category.isEmpty()) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (startDate != null && endDate != null) {
+            criteria = criteria.and("expenseDate").gt(startDate).lt(endDate);
+        }
+        return Query.query(criteria).with(pageable);
+    }
+
+    private static Query afterQuery(String owner, LocalDateTime date) {
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (date != null) {
+            criteria = criteria.and("expenseDate").gt(date);
+        }
+        return Query.query(criteria);
+    }
+}
@@ -0,0 +1,48 @@
+package com.expensetracker.repository;
+
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters shared by the expense store implementations.
+ */
+public final class ExpenseCriteria {
+
+    private ExpenseCriteria() {
+    }
+
+    /**
+     * Projection of an expense's amount in minor units. Documents written
+     * before amountMinor existed fall back to round(amount * 100), the same
+     * conversion Money#minorFromLegacy applies when reading them.
+     */
+    public static AggregationExpression amountMinor() {
+        return ConditionalOperators.ifNull("amountMinor")
+                .thenValueOf(ConvertOperators.valueOf(ArithmeticOperators.Round.roundValueOf(
+                        ArithmeticOperators.valueOf("amount").multiplyBy(100))).convertToLong());
+    }
+
+    public static Criteria dateRange(Criteria criteria, String field, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null && endDate != null) {
+            return criteria.and(field).gte(startDate).lte(endDate);
+        } else if (startDate != null) {
+            return criteria.and(field).gte(startDate);
+        } else if (endDate != null) {
+            return criteria.and(field).lte(endDate);
+        }
+        return criteria;
+    }
+
+    public static Criteria forOwner(String owner, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = Criteria.where("owner").is(owner);
+        if (category != null && !category.isEmpty()) {
+            criteria = criteria.and("category").is(category);
+        }
+        return dateRange(criteria, "expenseDate", startDate, endDate);
+    }
+}
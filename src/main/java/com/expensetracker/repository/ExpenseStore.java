@@ -0,0 +1,111 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage for expenses, independent of the backend and of how they are laid
+ * out in Mongo.
+ */
+public interface ExpenseStore {
+
+    Expense save(Expense expense);
+
+    /**
+     * Inserts new expenses in one batch. Ids already assigned are kept, so a
+     * caller can tell afterwards which of them landed.
+     */
+    List<Expense> saveAll(List<Expense> expenses);
+
+    Optional<Expense> findByIdAndOwner(String id, String owner);
+
+    void delete(Expense expense);
+
+    /**
+     * One page of an owner's expenses. Category and dates are optional filters;
+     * the date filter applies only when both bounds are given.
+     */
+    List<Expense> findPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    List<Expense> findByOwner(String owner);
+
+    List<Expense> findByOwnerAndExpenseDateAfter(String owner, LocalDateTime date);
+
+    /**
+     * The same page as {@link #findPage}, decoded straight into responses when
+     * the store supports it. Empty means the caller should map findPage itself.
+     */
+    default Optional<List<ExpenseResponse>> findResponsePage(String owner, String category, LocalDateTime startDate,
+                                                             LocalDateTime endDate, Pageable pageable) {
+        return Optional.empty();
+    }
+
+    /**
+     * An owner's expenses after the given date (all of them when it is null),
+     * decoded straight into responses when the store supports it.
+     */
+    default Optional<List<ExpenseResponse>> findResponsesAfter(String owner, LocalDateTime date) {
+        return Optional.empty();
+    }
+
+    /**
+     * Whether {@link #streamPage} and {@link #streamAfter} pass on the stored
+     * documents as they are read. Stores that have to encode their expenses
+     * first still stream correctly, but save nothing over mapping them.
+     */
+    default boolean supportsRawDocuments() {
+        return false;
+    }
+
+    /**
+     * Streams the same page as {@link #findPage} as raw documents.
+     */
+    void streamPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                    Pageable pageable, Consumer<RawBsonDocument> consumer);
+
+    /**
+     * Streams an owner's expenses after the given date (all of them when it is null) as raw documents.
+     */
+    void streamAfter(String owner, LocalDateTime date, Consumer<RawBsonDocument> consumer);
+
+    /**
+     * An owner's count and total per category, largest total first, optionally
+     * restricted to a date range (either bound may be null, both are inclusive).
+     */
+    List<CategoryTotal> categoryTotals(String owner, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Count, total, largest and smallest amount of an owner's expenses over
+     * the same kind of date range; empty when there are none.
+     */
+    Optional<AmountTotals> amountTotals(String owner, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * An owner's total and count per local calendar day and category.
+     */
+    List<DailyCategoryTotal> dailyCategoryTotals(String owner);
+
+    /**
+     * All of an owner's expenses with only id, expenseDate, category,
+     * paymentType and amountMinor filled in, for the analytics cache, which
+     * patches its rows by id.
+     */
+    List<Expense> findAnalyticsFields(String owner);
+
+    record CategoryTotal(String category, long totalMinor, long count) {
+    }
+
+    record AmountTotals(long count, long totalMinor, long maxMinor, long minMinor) {
+    }
+
+    record DailyCategoryTotal(LocalDate day, String category, long totalMinor, long count) {
+    }
+}
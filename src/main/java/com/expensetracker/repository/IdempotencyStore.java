@@ -0,0 +1,35 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage for {@link IdempotencyRecord}s shared between instances,
+ * independent of the backend.
+ */
+public interface IdempotencyStore {
+
+    IdempotencyRecord findById(String id);
+
+    /**
+     * Inserts an in-progress record, or takes over one whose lock lapsed
+     * before now. Returns false when another instance holds the key.
+     */
+    boolean acquire(String id, String fingerprint, LocalDateTime now, LocalDateTime lockedUntil);
+
+    /**
+     * Extends the lock of an in-progress record. False when it is no longer in progress.
+     */
+    boolean renew(String id, LocalDateTime lockedUntil);
+
+    /**
+     * Removes the in-progress record so the key can be retried.
+     */
+    void release(String id);
+
+    /**
+     * Replaces the in-progress record with the completed one.
+     */
+    void save(IdempotencyRecord record);
+}
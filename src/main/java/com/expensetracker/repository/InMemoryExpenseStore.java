@@ -0,0 +1,414 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.codec.ExpenseCodec;
+import com.expensetracker.model.Expense;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Expenses held in memory, for hermetic integration and load tests and for
+ * measuring everything an endpoint does apart from the database.
+ *
+ * Each owner has a skip list ordered by (expenseDate, id), standing in for the
+ * owner_date_idx index, and one per category for owner_category_idx, so
+ * date-ordered pages and date ranges are range scans and only other sort
+ * orders sort in memory, as Mongo would. Writes to one owner are serialized;
+ * reads are lock-free and see each expense either before or after a
+ * concurrent write. Expenses are copied in and out, so callers can no more
+ * change stored state by mutating a result than they could with Mongo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "memory")
+public class InMemoryExpenseStore implements ExpenseStore {
+
+    private static final String EXPENSE_DATE = "expenseDate";
+
+    private final ConcurrentHashMap<String, OwnerExpenses> owners = new ConcurrentHashMap<>();
+
+    @Override
+    public Expense save(Expense expense) {
+        // Stands in for the auditing callbacks the repository would run
+        LocalDateTime now = LocalDateTime.now();
+        if (expense.getId() == null) {
+            expense.setId(new ObjectId().toHexString());
+            expense.setCreatedAt(now);
+        }
+        expense.setUpdatedAt(now);
+        ownerExpenses(expense.getOwner()).put(copy(expense));
+        return expense;
+    }
+
+    @Override
+    public List<Expense> saveAll(List<Expense> expenses) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Expense expense : expenses) {
+            expense.setCreatedAt(now);
+            save(expense);
+        }
+        return expenses;
+    }
+
+    @Override
+    public Optional<Expense> findByIdAndOwner(String id, String owner) {
+        OwnerExpenses expenses = owners.get(owner);
+        Expense expense = expenses != null ? expenses.byId.get(id) : null;
+        return Optional.ofNullable(expense).map(InMemoryExpenseStore::copy);
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        OwnerExpenses expenses = owners.get(expense.getOwner());
+        if (expenses != null) {
+            expenses.remove(expense.getId());
+        }
+    }
+
+    /**
+     * Drops everything the owner has, as the purge of a deleted account does.
+     */
+    public void deleteOwner(String owner) {
+        owners.remove(owner);
+    }
+
+    @Override
+    public List<Expense> findPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                  Pageable pageable) {
+        OwnerExpenses expenses = owners.get(owner);
+        if (expenses == null) {
+            return List.of();
+        }
+        NavigableMap<Key, Expense> index = expenses.index(category);
+        if (startDate != null && endDate != null) {
+            // Exclusive bounds, like the derived "Between" queries
+            index = index.subMap(Key.last(startDate), false, Key.first(endDate), false);
+        }
+
+        Sort sort = pageable.getSort();
+        Sort.Order dateOrder = sort.getOrderFor(EXPENSE_DATE);
+        if (sort.isUnsorted() || (dateOrder != null && sort.toList().size() == 1)) {
+            // Index order: walk to the page and stop
+            Collection<Expense> ordered = dateOrder != null && dateOrder.isDescending()
+                    ? index.descendingMap().values() : index.values();
+            return page(ordered, pageable);
+        }
+
+        List<Expense> matching = new ArrayList<>(index.values());
+        matching.sort(comparator(sort));
+        return page(matching, pageable);
+    }
+
+    @Override
+    public List<Expense> findByOwner(String owner) {
+        OwnerExpenses expenses = owners.get(owner);
+        return expenses == null ? List.of() : copies(expenses.byDate.values());
+    }
+
+    @Override
+    public List<Expense> findByOwnerAndExpenseDateAfter(String owner, LocalDateTime date) {
+        OwnerExpenses expenses = owners.get(owner);
+        return expenses == null ? List.of() : copies(expenses.byDate.tailMap(Key.last(date), false).values());
+    }
+
+    @Override
+    public void streamPage(String owner, String category, LocalDateTime startDate, LocalDateTime endDate,
+                           Pageable pageable, Consumer<RawBsonDocument> consumer) {
+        for (Expense expense : findPage(owner, category, startDate, endDate, pageable)) {
+            consumer.accept(ExpenseCodec.toRawDocument(expense));
+        }
+    }
+
+    @Override
+    public void streamAfter(String owner, LocalDateTime date, Consumer<RawBsonDocument> consumer) {
+        for (Expense expense : date != null ? findByOwnerAndExpenseDateAfter(owner, date) : findByOwner(owner)) {
+            consumer.accept(ExpenseCodec.toRawDocument(expense));
+        }
+    }
+
+    @Override
+    public List<CategoryTotal> categoryTotals(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        Map<String, long[]> byCategory = new HashMap<>();
+        for (Expense expense : range(owner, startDate, endDate)) {
+            long[] sums = byCategory.computeIfAbsent(expense.getCategory(), k -> new long[2]);
+            sums[0] += expense.getAmountMinor();
+            sums[1]++;
+        }
+        List<CategoryTotal> totals = new ArrayList<>(byCategory.size());
+        for (Map.Entry<String, long[]> entry : byCategory.entrySet()) {
+            totals.add(new CategoryTotal(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        totals.sort(Comparator.comparingLong(CategoryTotal::totalMinor).reversed());
+        return totals;
+    }
+
+    @Override
+    public Optional<AmountTotals> amountTotals(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        long count = 0;
+        long total = 0;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (Expense expense : range(owner, startDate, endDate)) {
+            long amount = expense.getAmountMinor();
+            count++;
+            total += amount;
+            max = Math.max(max, amount);
+            min = Math.min(min, amount);
+        }
+        return count == 0 ? Optional.empty() : Optional.of(new AmountTotals(count, total, max, min));
+    }
+
+    @Override
+    public List<DailyCategoryTotal> dailyCategoryTotals(String owner) {
+        Map<LocalDate, Map<String, long[]>> byDay = new HashMap<>();
+        for (Expense expense : range(owner, null, null)) {
+            if (expense.getExpenseDate() == null) {
+                continue;
+            }
+            long[] sums = byDay.computeIfAbsent(expense.getExpenseDate().toLocalDate(), k -> new HashMap<>())
+                    .computeIfAbsent(expense.getCategory(), k -> new long[2]);
+            sums[0] += expense.getAmountMinor();
+            sums[1]++;
+        }
+        List<DailyCategoryTotal> totals = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<String, long[]>> day : byDay.entrySet()) {
+            for (Map.Entry<String, long[]> category : day.getValue().entrySet()) {
+                totals.add(new DailyCategoryTotal(day.getKey(), category.getKey(),
+                        category.getValue()[0], category.getValue()[1]));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public List<Expense> findAnalyticsFields(String owner) {
+        Collection<Expense> expenses = range(owner, null, null);
+        List<Expense> fields = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            fields.add(Expense.builder()
+                    .id(expense.getId())
+                    .expenseDate(expense.getExpenseDate())
+                    .category(expense.getCategory())
+                    .paymentType(expense.getPaymentType())
+                    .amountMinor(expense.getAmountMinor())
+                    .build());
+        }
+        return fields;
+    }
+
+    /** Inclusive date range over the owner's date index; either bound may be null */
+    private Collection<Expense> range(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        OwnerExpenses expenses = owners.get(owner);
+        if (expenses == null) {
+            return List.of();
+        }
+        NavigableMap<Key, Expense> index = expenses.byDate;
+        if (startDate != null) {
+            index = index.tailMap(Key.first(startDate), true);
+        }
+        if (endDate != null) {
+            index = index.headMap(Key.last(endDate), true);
+        }
+        return index.values();
+    }
+
+    private OwnerExpenses ownerExpenses(String owner) {
+        return owners.computeIfAbsent(owner, k -> new OwnerExpenses());
+    }
+
+    private static List<Expense> page(Collection<Expense> ordered, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return copies(ordered);
+        }
+        List<Expense> page = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (Expense expense : ordered) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(copy(expense));
+            if (page.size() == pageable.getPageSize()) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /** Missing values sort first ascending, as in Mongo; ties fall back to id */
+    private static Comparator<Expense> comparator(Sort sort) {
+        Comparator<Expense> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Expense> next = field(order.getProperty());
+            if (next == null) {
+                continue;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Expense> byId = Comparator.comparing(Expense::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static Comparator<Expense> field(String property) {
+        switch (property) {
+            case "id":
+                return by(Expense::getId);
+            case "name":
+                return by(Expense::getName);
+            case "amountMinor":
+                return by(Expense::getAmountMinor);
+            case EXPENSE_DATE:
+                return by(Expense::getExpenseDate);
+            case "category":
+                return by(Expense::getCategory);
+            case "paymentType":
+                return by(Expense::getPaymentType);
+            case "comment":
+                return by(Expense::getComment);
+            case "createdAt":
+                return by(Expense::getCreatedAt);
+            case "updatedAt":
+                return by(Expense::getUpdatedAt);
+            default:
+                // Every document lacks an unknown field, so it does not order them
+                return null;
+        }
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Expense> by(Function<Expense, T> field) {
+        return Comparator.comparing(field, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private static List<Expense> copies(Collection<Expense> expenses) {
+        List<Expense> copies = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            copies.add(copy(expense));
+        }
+        return copies;
+    }
+
+    private static Expense copy(Expense expense) {
+        return Expense.builder()
+                .id(expense.getId())
+                .name(expense.getName())
+                .amountMinor(expense.getAmountMinor())
+                .expenseDate(expense.getExpenseDate())
+                .category(expense.getCategory())
+                .paymentType(expense.getPaymentType())
+                .comment(expense.getComment())
+                .owner(expense.getOwner())
+                .createdAt(expense.getCreatedAt())
+                .updatedAt(expense.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Index key: expenses ordered by date, then id. first/last bracket every
+     * key of a given date, for inclusive and exclusive range bounds.
+     */
+    private record Key(LocalDateTime date, String id) implements Comparable<Key> {
+
+        // ObjectId hex strings sort strictly between these two
+        private static final String BEFORE_ANY_ID = "";
+        private static final String AFTER_ANY_ID = "\uffff";
+
+        static Key of(Expense expense) {
+            return new Key(expense.getExpenseDate(), expense.getId());
+        }
+
+        static Key first(LocalDateTime date) {
+            return new Key(date, BEFORE_ANY_ID);
+        }
+
+        static Key last(LocalDateTime date) {
+            return new Key(date, AFTER_ANY_ID);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byDate = Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()).compare(date, other.date);
+            return byDate != 0 ? byDate : id.compareTo(other.id);
+        }
+    }
+
+    private static final class OwnerExpenses {
+
+        final ConcurrentHashMap<String, Expense> byId = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<Key, Expense> byDate = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<String, ConcurrentSkipListMap<Key, Expense>> byCategory = new ConcurrentHashMap<>();
+
+        NavigableMap<Key, Expense> index(String category) {
+            if (category == null || category.isEmpty()) {
+                return byDate;
+            }
+            NavigableMap<Key, Expense> index = byCategory.get(category);
+            return index != null ? index : new ConcurrentSkipListMap<>();
+        }
+
+        /**
+         * Indexes the new version before unindexing the old one, and leaves
+         * entries whose key is unchanged in place, so readers never miss it.
+         */
+        synchronized void put(Expense expense) {
+            Key key = Key.of(expense);
+            String category = categoryKey(expense);
+            byDate.put(key, expense);
+            byCategory.computeIfAbsent(category, k -> new ConcurrentSkipListMap<>()).put(key, expense);
+            Expense previous = byId.put(expense.getId(), expense);
+            if (previous == null) {
+                return;
+            }
+            Key previousKey = Key.of(previous);
+            if (!previousKey.equals(key)) {
+                byDate.remove(previousKey);
+            }
+            if (!previousKey.equals(key) || !categoryKey(previous).equals(category)) {
+                ConcurrentSkipListMap<Key, Expense> previousCategory = byCategory.get(categoryKey(previous));
+                if (previousCategory != null) {
+                    previousCategory.remove(previousKey);
+                }
+            }
+        }
+
+        synchronized void remove(String id) {
+            unindex(byId.remove(id));
+        }
+
+        /** The map takes no null keys; an empty filter never reaches the category index anyway */
+        private static String categoryKey(Expense expense) {
+            return expense.getCategory() != null ? expense.getCategory() : "";
+        }
+
+        private void unindex(Expense previous) {
+            if (previous == null) {
+                return;
+            }
+            Key key = Key.of(previous);
+            byDate.remove(key);
+            ConcurrentSkipListMap<Key, Expense> category = byCategory.get(categoryKey(previous));
+            if (category != null) {
+                category.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.IdempotencyRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps nothing: with the in-memory backend there is one instance, whose
+ * single flight already serializes duplicates, and completed responses live
+ * only in the IdempotencyService's LRU.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    @Override
+    public IdempotencyRecord findById(String id) {
+        return null;
+    }
+
+    @Override
+    public boolean acquire(String id, String fingerprint, LocalDateTime now, LocalDateTime lockedUntil) {
+        return true;
+    }
+
+    @Override
+    public boolean renew(String id, LocalDateTime lockedUntil) {
+        return true;
+    }
+
+    @Override
+    public void release(String id) {
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+    }
+}
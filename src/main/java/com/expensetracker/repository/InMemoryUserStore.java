@@ -0,0 +1,143 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users held in memory alongside {@link InMemoryExpenseStore}.
+ *
+ * Username and email are unique as with the collection's indexes. Deleting a
+ * user drops their expenses at once, since there is no purge worker to do it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "memory")
+public class InMemoryUserStore implements UserStore {
+
+    private final InMemoryExpenseStore expenseStore;
+
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> idsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> idsByEmail = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized User save(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+            user.setCreatedAt(now);
+        }
+        String id = user.getId();
+        checkUnique(idsByUsername, user.getUsername(), id, "username");
+        checkUnique(idsByEmail, user.getEmail(), id, "email");
+        user.setUpdatedAt(now);
+
+        User previous = users.put(id, copy(user));
+        remap(idsByUsername, previous != null ? previous.getUsername() : null, user.getUsername(), id);
+        remap(idsByEmail, previous != null ? previous.getEmail() : null, user.getEmail(), id);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return Optional.ofNullable(users.get(id)).map(InMemoryUserStore::copy);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return byIndex(idsByUsername, username);
+    }
+
+    @Override
+    public Optional<User> findByUsernameOrEmail(String username, String email) {
+        Optional<User> user = byIndex(idsByUsername, username);
+        return user.isPresent() ? user : byIndex(idsByEmail, email);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public boolean existsByUsernameOrEmail(String username, String email) {
+        return (username != null && idsByUsername.containsKey(username))
+                || (email != null && idsByEmail.containsKey(email));
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        User removed = users.remove(id);
+        if (removed != null) {
+            unmap(idsByUsername, removed.getUsername(), id);
+            unmap(idsByEmail, removed.getEmail(), id);
+        }
+        expenseStore.deleteOwner(id);
+    }
+
+    @Override
+    public void incrementExpenseCounts(Map<String, Integer> countsByUser) {
+        for (Map.Entry<String, Integer> entry : countsByUser.entrySet()) {
+            users.computeIfPresent(entry.getKey(), (id, user) -> {
+                User updated = copy(user);
+                updated.setExpenseLogged(user.getExpenseLogged() + entry.getValue());
+                return updated;
+            });
+        }
+    }
+
+    private Optional<User> byIndex(Map<String, String> index, String key) {
+        String id = key != null ? index.get(key) : null;
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    private static void checkUnique(Map<String, String> index, String key, String id, String field) {
+        String holder = key != null ? index.get(key) : null;
+        if (holder != null && !holder.equals(id)) {
+            throw new DuplicateKeyException("Duplicate " + field + ": " + key);
+        }
+    }
+
+    /** Unchanged keys are left in place, so concurrent lookups never miss them */
+    private static void remap(Map<String, String> index, String previousKey, String key, String id) {
+        if (previousKey != null && !previousKey.equals(key)) {
+            index.remove(previousKey, id);
+        }
+        if (key != null) {
+            index.put(key, id);
+        }
+    }
+
+    private static void unmap(Map<String, String> index, String key, String id) {
+        if (key != null) {
+            index.remove(key, id);
+        }
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .name(user.getName())
+                .password(user.getPassword())
+                .refreshToken(user.getRefreshToken())
+                .userFirstSignUp(user.getUserFirstSignUp())
+                .lastLoginDate(user.getLastLoginDate())
+                .expenseLogged(user.getExpenseLogged())
+                .categories(user.getCategories() != null ? new ArrayList<>(user.getCategories()) : null)
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
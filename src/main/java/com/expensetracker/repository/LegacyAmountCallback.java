@@ -0,0 +1,24 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills amountMinor for expenses read through the mapping converter that
+ * still only carry the old double amount field. The hand-written codecs apply
+ * the same fallback themselves.
+ */
+@Component
+public class LegacyAmountCallback implements AfterConvertCallback<Expense> {
+
+    @Override
+    public Expense onAfterConvert(Expense expense, Document document, String collection) {
+        if (!document.containsKey("amountMinor") && document.get("amount") instanceof Number) {
+            expense.setAmountMinor(Money.minorFromLegacy(((Number) document.get("amount")).doubleValue()));
+        }
+        return expense;
+    }
+}
@@ -0,0 +1,108 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The aggregate queries of the Mongo layouts, written once as pipelines over
+ * plain expense documents; each layout supplies {@link #aggregate}.
+ */
+public abstract class MongoExpenseStore implements ExpenseStore {
+
+    /**
+     * Runs the given stages over an owner's expenses, optionally restricted to
+     * a date range (either bound may be null). The stages see plain expense
+     * documents whatever the layout.
+     */
+    public abstract <T> List<T> aggregate(String owner, LocalDateTime startDate, LocalDateTime endDate,
+                                          List<AggregationOperation> stages, Class<T> outputType);
+
+    @Override
+    public List<CategoryTotal> categoryTotals(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Document> rows = aggregate(owner, startDate, endDate, List.of(
+                amounts(),
+                Aggregation.group("category")
+                        .sum("amountMinor").as("totalAmount")
+                        .count().as("count"),
+                Aggregation.sort(Sort.Direction.DESC, "totalAmount")
+        ), Document.class);
+
+        List<CategoryTotal> totals = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            totals.add(new CategoryTotal((String) row.get("_id"),
+                    ((Number) row.get("totalAmount")).longValue(), ((Number) row.get("count")).longValue()));
+        }
+        return totals;
+    }
+
+    @Override
+    public Optional<AmountTotals> amountTotals(String owner, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Document> rows = aggregate(owner, startDate, endDate, List.of(
+                amounts(),
+                Aggregation.group()
+                        .count().as("totalExpenses")
+                        .sum("amountMinor").as("totalAmount")
+                        .max("amountMinor").as("maxAmount")
+                        .min("amountMinor").as("minAmount")
+        ), Document.class);
+
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Document row = rows.get(0);
+        return Optional.of(new AmountTotals(
+                ((Number) row.get("totalExpenses")).longValue(),
+                ((Number) row.get("totalAmount")).longValue(),
+                ((Number) row.get("maxAmount")).longValue(),
+                ((Number) row.get("minAmount")).longValue()));
+    }
+
+    @Override
+    public List<DailyCategoryTotal> dailyCategoryTotals(String owner) {
+        List<Document> rows = aggregate(owner, null, null, List.of(
+                Aggregation.project("category")
+                        .and(ExpenseCriteria.amountMinor()).as("amountMinor")
+                        .and(DateOperators.dateOf("expenseDate")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                                .toString("%Y-%m-%d"))
+                        .as("day"),
+                Aggregation.group("day", "category")
+                        .sum("amountMinor").as("totalAmount")
+                        .count().as("count")
+        ), Document.class);
+
+        List<DailyCategoryTotal> totals = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            Document id = (Document) row.get("_id");
+            if (id.get("day") == null) {
+                continue;
+            }
+            totals.add(new DailyCategoryTotal(LocalDate.parse((String) id.get("day")), (String) id.get("category"),
+                    ((Number) row.get("totalAmount")).longValue(), ((Number) row.get("count")).longValue()));
+        }
+        return totals;
+    }
+
+    @Override
+    public List<Expense> findAnalyticsFields(String owner) {
+        return aggregate(owner, null, null,
+                List.of(Aggregation.project("expenseDate", "category", "paymentType")
+                        .and(ExpenseCriteria.amountMinor()).as("amountMinor")), Expense.class);
+    }
+
+    /** Sums stay integral in minor units; averages are divided exactly by the caller rather than by $avg */
+    private static AggregationOperation amounts() {
+        return Aggregation.project("category").and(ExpenseCriteria.amountMinor()).as("amountMinor");
+    }
+}
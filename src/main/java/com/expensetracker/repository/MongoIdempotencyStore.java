@@ -0,0 +1,85 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.IdempotencyRecord;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency records in the idempotency_keys collection, expired by a TTL
+ * index on createdAt.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "mongo", matchIfMissing = true)
+public class MongoIdempotencyStore implements IdempotencyStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(IdempotencyRecord.class)
+                .ensureIndex(new Index().on("createdAt", Sort.Direction.ASC).expire(Duration.ofHours(ttlHours)));
+    }
+
+    @Override
+    public IdempotencyRecord findById(String id) {
+        return mongoTemplate.findById(id, IdempotencyRecord.class);
+    }
+
+    @Override
+    public boolean acquire(String id, String fingerprint, LocalDateTime now, LocalDateTime lockedUntil) {
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .id(id)
+                    .fingerprint(fingerprint)
+                    .status(IdempotencyRecord.IN_PROGRESS)
+                    .lockedUntil(lockedUntil)
+                    .createdAt(now)
+                    .build());
+            return true;
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord taken = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(id)
+                            .and("status").is(IdempotencyRecord.IN_PROGRESS)
+                            .and("lockedUntil").lt(now)),
+                    new Update().set("lockedUntil", lockedUntil).set("fingerprint", fingerprint),
+                    FindAndModifyOptions.options().returnNew(true), IdempotencyRecord.class);
+            return taken != null;
+        }
+    }
+
+    @Override
+    public boolean renew(String id, LocalDateTime lockedUntil) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)
+                        .and("status").is(IdempotencyRecord.IN_PROGRESS)),
+                new Update().set("lockedUntil", lockedUntil), IdempotencyRecord.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void release(String id) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyRecord.IN_PROGRESS)), IdempotencyRecord.class);
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        mongoTemplate.save(record);
+    }
+}
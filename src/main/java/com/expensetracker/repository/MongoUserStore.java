@@ -0,0 +1,77 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.codec.EntityCodecs;
+import com.expensetracker.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Users in the users collection, through the repository, or the hand-written
+ * codec for lookups by id when app.storage.codecs.enabled is set.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "mongo", matchIfMissing = true)
+public class MongoUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCodecs entityCodecs;
+
+    @Override
+    public User save(User user) {
+        return userRepository.save(user);
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        if (!entityCodecs.isEnabled()) {
+            return userRepository.findById(id);
+        }
+        return Optional.ofNullable(entityCodecs.findOne(Query.query(Criteria.where("id").is(id)), User.class));
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return userRepository.findByUsername(username);
+    }
+
+    @Override
+    public Optional<User> findByUsernameOrEmail(String username, String email) {
+        return userRepository.findByUsernameOrEmail(username, email);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return userRepository.existsById(id);
+    }
+
+    @Override
+    public boolean existsByUsernameOrEmail(String username, String email) {
+        return userRepository.existsByUsernameOrEmail(username, email);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        userRepository.deleteById(id);
+    }
+
+    @Override
+    public void incrementExpenseCounts(Map<String, Integer> countsByUser) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (Map.Entry<String, Integer> entry : countsByUser.entrySet()) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(entry.getKey())),
+                    new Update().inc("expenseLogged", entry.getValue()));
+        }
+        bulk.execute();
+    }
+}
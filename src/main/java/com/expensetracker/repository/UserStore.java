@@ -0,0 +1,35 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.User;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage for users, independent of the backend.
+ */
+public interface UserStore {
+
+    /**
+     * Inserts the user when it has no id yet, otherwise replaces it. A
+     * username or email taken by another user is a DuplicateKeyException.
+     */
+    User save(User user);
+
+    Optional<User> findById(String id);
+
+    Optional<User> findByUsername(String username);
+
+    Optional<User> findByUsernameOrEmail(String username, String email);
+
+    boolean existsById(String id);
+
+    boolean existsByUsernameOrEmail(String username, String email);
+
+    void deleteById(String id);
+
+    /**
+     * Atomically adds to several users' expenseLogged.
+     */
+    void incrementExpenseCounts(Map<String, Integer> countsByUser);
+}
@@ -0,0 +1,28 @@
+package com.expensetracker.security;
+
+import com.expensetracker.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Guards the operational endpoints under /api/v1/admin and /actuator. Users
+ * have no roles, so admins are listed by id in app.admin.user-ids.
+ */
+@Component
+public class AdminAccess {
+
+    @Value("${app.admin.user-ids:}")
+    private Set<String> adminUserIds;
+
+    public void check(String userId) {
+        if (!isAdmin(userId)) {
+            throw new ApiException(403, "Admin access required");
+        }
+    }
+
+    public boolean isAdmin(String userId) {
+        return userId != null && adminUserIds.contains(userId);
+    }
+}
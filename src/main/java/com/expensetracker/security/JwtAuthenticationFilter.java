@@ -1,12 +1,15 @@
 package com.expensetracker.security;
 
+import com.expensetracker.profiling.TokenVerificationEvent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,10 +22,17 @@ import java.util.Collections;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String MDC_USER_ID = "userId";
+
     private final JwtService jwtService;
+    private final ObservationRegistry observationRegistry;
+
+    public JwtAuthenticationFilter(JwtService jwtService, ObservationRegistry observationRegistry) {
+        this.jwtService = jwtService;
+        this.observationRegistry = observationRegistry;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -38,28 +48,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        String userId = null;
         try {
-            if (jwtService.isTokenValid(jwt)) {
-                String userId = jwtService.extractUserId(jwt);
-                
-                if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userId,
-                            null,
-                            Collections.emptyList()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            userId = verify(jwt);
+
+            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userId,
+                        null,
+                        Collections.emptyList()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
         }
 
-        filterChain.doFilter(request, response);
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // Every log line for the request carries the user
+        MDC.put(MDC_USER_ID, userId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_USER_ID);
+        }
+    }
+
+    /**
+     * The token's user id, or null if it does not verify. Observed as
+     * app.jwt.verify, which is both its span and its timer, by outcome.
+     */
+    private String verify(String jwt) {
+        Observation observation = Observation.createNotStarted("app.jwt.verify", observationRegistry)
+                .contextualName("jwt verify")
+                .start();
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        String userId = null;
+        try {
+            if (jwtService.isTokenValid(jwt)) {
+                userId = jwtService.extractUserId(jwt);
+            }
+            return userId;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", userId != null ? "valid" : "invalid");
+            observation.stop();
+            event.end();
+            if (event.shouldCommit()) {
+                event.userId = userId;
+                event.valid = userId != null;
+                event.commit();
+            }
+        }
     }
 
-    private String extractToken(HttpServletRequest request) {
+    /**
+     * The bearer token from the Authorization header, else the accessToken cookie.
+     */
+    public static String extractToken(HttpServletRequest request) {
         // Try to get token from Authorization header first
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
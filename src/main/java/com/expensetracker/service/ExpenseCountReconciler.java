@@ -0,0 +1,185 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ReconciliationReport;
+import com.expensetracker.repository.BucketExpenseStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes every user's expense count and repairs the users whose stored
+ * expenseLogged has drifted.
+ *
+ * Actual counts come from one $group by owner, sorted by owner; users are
+ * streamed in _id order. Hex ObjectId strings sort the same way as the
+ * ObjectIds, so the two streams are merged in a single pass and users with no
+ * expenses at all are seen too.
+ *
+ * The counts are a snapshot taken when the run starts, so a user who writes
+ * before their document is read would look drifted. Each mismatch is therefore
+ * counted again for that one owner before it is repaired, and the repair is
+ * conditional on the stored value that was read: a count that changes after
+ * the recount makes the update miss and is left for the next run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseCountReconciler {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.reconciliation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.storage.expense-layout:document}")
+    private String expenseLayout;
+
+    private volatile ReconciliationReport lastReport;
+    private Thread worker;
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Starts a run on a background thread. Returns false when one is already in progress.
+     */
+    public synchronized boolean start() {
+        if (worker != null && worker.isAlive()) {
+            return false;
+        }
+        worker = new Thread(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.error("Expense count reconciliation failed", e);
+            }
+        }, "expense-count-reconciliation");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    public synchronized ReconciliationReport reconcile() {
+        long started = System.currentTimeMillis();
+        ReconciliationReport report = ReconciliationReport.builder().build();
+
+        Query users = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        users.fields().include("_id", "expenseLogged");
+
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<Document> counts = mongoTemplate.aggregateStream(countsByOwner(), countCollection(), Document.class);
+             Stream<Document> userStream = mongoTemplate.stream(users, Document.class, "users")) {
+            Iterator<Document> countRows = counts.iterator();
+            Iterator<Document> userRows = userStream.iterator();
+            Document count = countRows.hasNext() ? countRows.next() : null;
+
+            while (userRows.hasNext()) {
+                Document user = userRows.next();
+                Object id = user.get("_id");
+                String userId = id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id);
+
+                // Skip owners with no user document; the orphan sweep handles those
+                while (count != null && (count.getString("_id") == null || count.getString("_id").compareTo(userId) < 0)) {
+                    count = countRows.hasNext() ? countRows.next() : null;
+                }
+                long actual = 0;
+                if (count != null && userId.equals(count.getString("_id"))) {
+                    actual = ((Number) count.get("count")).longValue();
+                }
+
+                report.setUsersChecked(report.getUsersChecked() + 1);
+                Object storedValue = user.get("expenseLogged");
+                long stored = storedValue instanceof Number ? ((Number) storedValue).longValue() : 0;
+                if (stored == actual) {
+                    continue;
+                }
+                // The snapshot may predate this user's latest writes
+                actual = countFor(userId);
+                if (stored == actual) {
+                    continue;
+                }
+
+                long drift = Math.abs(stored - actual);
+                report.setMismatched(report.getMismatched() + 1);
+                report.setTotalDrift(report.getTotalDrift() + drift);
+                report.setMaxDrift(Math.max(report.getMaxDrift(), drift));
+
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users");
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(id).and("expenseLogged").is(storedValue)),
+                        new Update().set("expenseLogged", (int) actual));
+                if (++pending >= batchSize) {
+                    report.setRepaired(report.getRepaired() + bulk.execute().getModifiedCount());
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            report.setRepaired(report.getRepaired() + bulk.execute().getModifiedCount());
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - started);
+        report.setFinishedAt(LocalDateTime.now());
+        lastReport = report;
+        log.info("Expense count reconciliation: checked {} users, {} drifted (total drift {}, max {}), repaired {} in {} ms",
+                report.getUsersChecked(), report.getMismatched(), report.getTotalDrift(), report.getMaxDrift(),
+                report.getRepaired(), report.getDurationMs());
+        return report;
+    }
+
+    private Aggregation countsByOwner() {
+        Aggregation aggregation = "bucket".equals(expenseLayout)
+                ? Aggregation.newAggregation(
+                        Aggregation.group("owner").sum("count").as("count"),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"))
+                : Aggregation.newAggregation(
+                        Aggregation.group("owner").count().as("count"),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"));
+        return aggregation.withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    private long countFor(String owner) {
+        if (!"bucket".equals(expenseLayout)) {
+            return mongoTemplate.count(Query.query(Criteria.where("owner").is(owner)), countCollection());
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("owner").is(owner)),
+                Aggregation.group("owner").sum("count").as("count"));
+        Document row = mongoTemplate.aggregate(aggregation, countCollection(), Document.class).getUniqueMappedResult();
+        return row != null ? ((Number) row.get("count")).longValue() : 0;
+    }
+
+    private String countCollection() {
+        return "bucket".equals(expenseLayout) ? BucketExpenseStore.COLLECTION : "expenses";
+    }
+}
@@ -0,0 +1,86 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseDateFormat;
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps expenses to API responses with minimal allocation per row: the response
+ * itself, built through its constructor, and its {@link Money} amount, with the
+ * date string shared from {@link ExpenseDateFormat}'s cache.
+ */
+@Component
+public class ExpenseMapper {
+
+    // Dates the API accepts, end exclusive; far-off dates are almost always typos
+    private static final LocalDateTime MIN_EXPENSE_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_EXPENSE_DATE = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    public ExpenseResponse toResponse(Expense expense) {
+        return new ExpenseResponse(
+                expense.getId(),
+                expense.getName(),
+                Money.ofMinor(expense.getAmountMinor()),
+                ExpenseDateFormat.format(expense.getExpenseDate()),
+                expense.getCategory(),
+                expense.getPaymentType(),
+                expense.getComment(),
+                expense.getOwner(),
+                expense.getCreatedAt(),
+                expense.getUpdatedAt());
+    }
+
+    /**
+     * Validates an import and builds its expenses, failing on the first invalid row.
+     */
+    public List<Expense> toImportedExpenses(String userId, List<ExpenseRequest> requests) {
+        List<Expense> expenses = new ArrayList<>(requests.size());
+        for (ExpenseRequest expenseRequest : requests) {
+            if (expenseRequest.getName() == null || expenseRequest.getAmount() == null ||
+                expenseRequest.getCategory() == null || expenseRequest.getPaymentType() == null) {
+                throw new ApiException(400, "Each expense must have name, amount, category, and payment type");
+            }
+
+            if (!expenseRequest.getAmount().isPositive()) {
+                throw new ApiException(400, "Amount must be greater than 0");
+            }
+            checkExpenseDate(expenseRequest.getExpenseDate());
+
+            expenses.add(Expense.builder()
+                    .name(expenseRequest.getName().trim())
+                    .amountMinor(expenseRequest.getAmount().getMinor())
+                    .expenseDate(expenseRequest.getExpenseDate() != null ? expenseRequest.getExpenseDate() : LocalDateTime.now())
+                    .category(expenseRequest.getCategory().trim())
+                    .paymentType(expenseRequest.getPaymentType().trim())
+                    .comment(expenseRequest.getComment() != null ? expenseRequest.getComment().trim() : "")
+                    .owner(userId)
+                    .build());
+        }
+        return expenses;
+    }
+
+    /**
+     * Rejects expense dates outside 1900 to 2099; a null date is left to the caller's default.
+     */
+    static void checkExpenseDate(LocalDateTime expenseDate) {
+        if (expenseDate != null && (expenseDate.isBefore(MIN_EXPENSE_DATE) || !expenseDate.isBefore(MAX_EXPENSE_DATE))) {
+            throw new ApiException(400, "Expense date must be between 1900-01-01 and 2099-12-31");
+        }
+    }
+
+    public List<ExpenseResponse> toResponses(List<Expense> expenses) {
+        List<ExpenseResponse> responses = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            responses.add(toResponse(expense));
+        }
+        return responses;
+    }
+}
@@ -1,26 +1,36 @@
 package com.expensetracker.service;
 
+import com.expensetracker.cache.AnalyticsCache;
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.cache.DailyTotals;
+import com.expensetracker.cache.DailyTotalsIndex;
+import com.expensetracker.cache.QueryCoalescer;
 import com.expensetracker.dto.*;
 import com.expensetracker.exception.ApiException;
 import com.expensetracker.model.Expense;
-import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.model.Money;
+import com.expensetracker.profiling.ExpenseImportEvent;
+import com.expensetracker.repository.ExpenseStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
-import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,11 +38,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ExpenseService {
 
-    private final ExpenseRepository expenseRepository;
+    private final ExpenseStore expenseStore;
     private final UserService userService;
-    private final MongoTemplate mongoTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final QueryCoalescer queryCoalescer;
+    private final AnalyticsCache analyticsCache;
+    private final DailyTotalsIndex dailyTotalsIndex;
+    private final ExpenseMapper expenseMapper;
+    private final ExpenseWriteBatcher writeBatcher;
+    private final MeterRegistry meterRegistry;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
+    @Value("${app.api.raw-json.enabled:false}")
+    private boolean rawJsonEnabled;
 
     public ExpenseResponse createExpense(String userId, ExpenseRequest request) {
         log.info("Creating expense for user: {}", userId);
@@ -44,13 +61,14 @@ public class ExpenseService {
             throw new ApiException(400, "Name, amount, category, and payment type are required");
         }
 
-        if (request.getAmount() <= 0) {
+        if (!request.getAmount().isPositive()) {
             throw new ApiException(400, "Amount must be greater than 0");
         }
+        ExpenseMapper.checkExpenseDate(request.getExpenseDate());
 
         Expense expense = Expense.builder()
                 .name(request.getName().trim())
-                .amount(request.getAmount())
+                .amountMinor(request.getAmount().getMinor())
                 .expenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : LocalDateTime.now())
                 .category(request.getCategory().trim())
                 .paymentType(request.getPaymentType().trim())
@@ -58,12 +76,27 @@ public class ExpenseService {
                 .owner(userId)
                 .build();
 
-        Expense savedExpense = expenseRepository.save(expense);
+        long writeGeneration = dailyTotalsIndex.beforeWrite(userId);
+        Expense savedExpense;
+        if (writeBatcher.isEnabled()) {
+            // Saved and counted together with other concurrent creates
+            savedExpense = writeBatcher.save(expense, saved -> afterCreate(saved, writeGeneration));
+        } else {
+            savedExpense = expenseStore.save(expense);
+
+            // Update user's expense count
+            userService.incrementExpenseCount(userId);
+        }
+        afterCreate(savedExpense, writeGeneration);
 
-        // Update user's expense count
-        userService.incrementExpenseCount(userId);
+        return expenseMapper.toResponse(savedExpense);
+    }
 
-        return mapToExpenseResponse(savedExpense);
+    private void afterCreate(Expense savedExpense, long writeGeneration) {
+        analyticsCache.onSaved(savedExpense);
+        dailyTotalsIndex.onCreated(savedExpense, writeGeneration);
+        queryCoalescer.onWrite(savedExpense.getOwner());
+        invalidationBus.publish(savedExpense.getOwner());
     }
 
     public List<ExpenseResponse> getAllExpenses(String userId, Integer page, Integer limit,
@@ -71,48 +104,54 @@ public class ExpenseService {
                                                  String sortBy, String sortType) {
         log.info("Getting all expenses for user: {}", userId);
 
-        Sort sort = Sort.by(sortType.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, 
-                           sortBy != null ? sortBy : "expenseDate");
-        Pageable pageable = PageRequest.of(page - 1, limit, sort);
+        return queryCoalescer.execute("list", userId,
+                Arrays.asList(page, limit, category, startDate, endDate, sortBy, sortType),
+                () -> loadExpenses(userId, page, limit, category, startDate, endDate, sortBy, sortType));
+    }
 
-        Page<Expense> expenses;
+    private List<ExpenseResponse> loadExpenses(String userId, Integer page, Integer limit,
+                                               String category, LocalDateTime startDate, LocalDateTime endDate,
+                                               String sortBy, String sortType) {
+        Pageable pageable = pageable(page, limit, sortBy, sortType);
 
-        if (category != null && !category.isEmpty() && startDate != null && endDate != null) {
-            expenses = expenseRepository.findByOwnerAndCategoryAndExpenseDateBetween(userId, category, startDate, endDate, pageable);
-        } else if (category != null && !category.isEmpty()) {
-            expenses = expenseRepository.findByOwnerAndCategory(userId, category, pageable);
-        } else if (startDate != null && endDate != null) {
-            expenses = expenseRepository.findByOwnerAndExpenseDateBetween(userId, startDate, endDate, pageable);
-        } else {
-            expenses = expenseRepository.findByOwner(userId, pageable);
+        Optional<List<ExpenseResponse>> direct = expenseStore.findResponsePage(userId, category, startDate, endDate, pageable);
+        if (direct.isPresent()) {
+            return direct.get();
         }
 
-        return expenses.getContent().stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
+        List<Expense> expenses = expenseStore.findPage(userId, category, startDate, endDate, pageable);
+
+        return expenseMapper.toResponses(expenses);
     }
 
     public ExpenseResponse getExpenseById(String userId, String expenseId) {
-        Expense expense = expenseRepository.findByIdAndOwner(expenseId, userId)
+        Expense expense = expenseStore.findByIdAndOwner(expenseId, userId)
                 .orElseThrow(() -> new ApiException(404, "Expense not found"));
 
-        return mapToExpenseResponse(expense);
+        return expenseMapper.toResponse(expense);
     }
 
     public ExpenseResponse updateExpense(String userId, String expenseId, ExpenseRequest request) {
-        Expense expense = expenseRepository.findByIdAndOwner(expenseId, userId)
+        Expense expense = expenseStore.findByIdAndOwner(expenseId, userId)
                 .orElseThrow(() -> new ApiException(404, "Expense not found"));
+        Expense before = Expense.builder()
+                .amountMinor(expense.getAmountMinor())
+                .expenseDate(expense.getExpenseDate())
+                .category(expense.getCategory())
+                .owner(expense.getOwner())
+                .build();
 
         if (request.getName() != null) {
             expense.setName(request.getName().trim());
         }
         if (request.getAmount() != null) {
-            if (request.getAmount() <= 0) {
+            if (!request.getAmount().isPositive()) {
                 throw new ApiException(400, "Amount must be greater than 0");
             }
-            expense.setAmount(request.getAmount());
+            expense.setAmountMinor(request.getAmount().getMinor());
         }
         if (request.getExpenseDate() != null) {
+            ExpenseMapper.checkExpenseDate(request.getExpenseDate());
             expense.setExpenseDate(request.getExpenseDate());
         }
         if (request.getCategory() != null) {
@@ -125,77 +164,58 @@ public class ExpenseService {
             expense.setComment(request.getComment().trim());
         }
 
-        Expense updatedExpense = expenseRepository.save(expense);
-        return mapToExpenseResponse(updatedExpense);
+        long writeGeneration = dailyTotalsIndex.beforeWrite(userId);
+        Expense updatedExpense = expenseStore.save(expense);
+        analyticsCache.onSaved(updatedExpense);
+        dailyTotalsIndex.onUpdated(before, updatedExpense, writeGeneration);
+        queryCoalescer.onWrite(userId);
+        invalidationBus.publish(userId);
+        return expenseMapper.toResponse(updatedExpense);
     }
 
     public void deleteExpense(String userId, String expenseId) {
-        Expense expense = expenseRepository.findByIdAndOwner(expenseId, userId)
+        Expense expense = expenseStore.findByIdAndOwner(expenseId, userId)
                 .orElseThrow(() -> new ApiException(404, "Expense not found"));
 
-        expenseRepository.delete(expense);
+        long writeGeneration = dailyTotalsIndex.beforeWrite(userId);
+        expenseStore.delete(expense);
         userService.decrementExpenseCount(userId);
+        analyticsCache.onDeleted(userId, expenseId);
+        dailyTotalsIndex.onDeleted(expense, writeGeneration);
+        queryCoalescer.onWrite(userId);
+        invalidationBus.publish(userId);
     }
 
     public ExpenseStatsResponse getExpenseStats(String userId, LocalDateTime startDate, LocalDateTime endDate) {
-        Criteria criteria = Criteria.where("owner").is(userId);
-        
-        if (startDate != null && endDate != null) {
-            criteria = criteria.and("expenseDate").gte(startDate).lte(endDate);
-        } else if (startDate != null) {
-            criteria = criteria.and("expenseDate").gte(startDate);
-        } else if (endDate != null) {
-            criteria = criteria.and("expenseDate").lte(endDate);
-        }
-
-        // Category stats aggregation
-        Aggregation categoryAggregation = Aggregation.newAggregation(
-                Aggregation.match(criteria),
-                Aggregation.group("category")
-                        .sum("amount").as("totalAmount")
-                        .count().as("count")
-                        .avg("amount").as("avgAmount"),
-                Aggregation.sort(Sort.Direction.DESC, "totalAmount")
-        );
+        return queryCoalescer.execute("stats", userId, Arrays.asList(startDate, endDate),
+                () -> loadExpenseStats(userId, startDate, endDate));
+    }
 
-        AggregationResults<Map> categoryResults = mongoTemplate.aggregate(
-                categoryAggregation, "expenses", Map.class);
+    private ExpenseStatsResponse loadExpenseStats(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        Optional<ExpenseStatsResponse> cached = analyticsCache.stats(userId, startDate, endDate);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
 
-        List<ExpenseStatsResponse.CategoryStats> categoryStats = categoryResults.getMappedResults()
+        List<ExpenseStatsResponse.CategoryStats> categoryStats = expenseStore.categoryTotals(userId, startDate, endDate)
                 .stream()
-                .map(map -> ExpenseStatsResponse.CategoryStats.builder()
-                        ._id((String) map.get("_id"))
-                        .totalAmount(((Number) map.get("totalAmount")).doubleValue())
-                        .count(((Number) map.get("count")).longValue())
-                        .avgAmount(((Number) map.get("avgAmount")).doubleValue())
+                .map(total -> ExpenseStatsResponse.CategoryStats.builder()
+                        ._id(total.category())
+                        .totalAmount(Money.ofMinor(total.totalMinor()))
+                        .count(total.count())
+                        .avgAmount(Money.average(total.totalMinor(), total.count()))
                         .build())
                 .collect(Collectors.toList());
 
-        // Overall stats aggregation
-        Aggregation overallAggregation = Aggregation.newAggregation(
-                Aggregation.match(criteria),
-                Aggregation.group()
-                        .count().as("totalExpenses")
-                        .sum("amount").as("totalAmount")
-                        .avg("amount").as("avgAmount")
-                        .max("amount").as("maxAmount")
-                        .min("amount").as("minAmount")
-        );
-
-        AggregationResults<Map> overallResults = mongoTemplate.aggregate(
-                overallAggregation, "expenses", Map.class);
-
-        ExpenseStatsResponse.OverallStats overallStats = ExpenseStatsResponse.OverallStats.builder().build();
-        if (!overallResults.getMappedResults().isEmpty()) {
-            Map result = overallResults.getMappedResults().get(0);
-            overallStats = ExpenseStatsResponse.OverallStats.builder()
-                    .totalExpenses(((Number) result.get("totalExpenses")).longValue())
-                    .totalAmount(((Number) result.get("totalAmount")).doubleValue())
-                    .avgAmount(((Number) result.get("avgAmount")).doubleValue())
-                    .maxAmount(((Number) result.get("maxAmount")).doubleValue())
-                    .minAmount(((Number) result.get("minAmount")).doubleValue())
-                    .build();
-        }
+        ExpenseStatsResponse.OverallStats overallStats = expenseStore.amountTotals(userId, startDate, endDate)
+                .map(totals -> ExpenseStatsResponse.OverallStats.builder()
+                        .totalExpenses(totals.count())
+                        .totalAmount(Money.ofMinor(totals.totalMinor()))
+                        .avgAmount(Money.average(totals.totalMinor(), totals.count()))
+                        .maxAmount(Money.ofMinor(totals.maxMinor()))
+                        .minAmount(Money.ofMinor(totals.minMinor()))
+                        .build())
+                .orElseGet(() -> ExpenseStatsResponse.OverallStats.builder().build());
 
         return ExpenseStatsResponse.builder()
                 .categoryStats(categoryStats)
@@ -203,86 +223,144 @@ public class ExpenseService {
                 .build();
     }
 
+    public SpendingSummaryResponse getSpendingSummary(String userId, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ApiException(400, "A valid startDate and endDate are required");
+        }
+        return dailyTotalsIndex.get(userId).sum(startDate, endDate, true);
+    }
+
+    public List<SpendingSummaryResponse> getRollingSpending(String userId, LocalDate endDate, Integer windowDays, Integer points) {
+        if (windowDays == null || windowDays < 1 || points == null || points < 1 || points > 366) {
+            throw new ApiException(400, "windowDays must be positive and points between 1 and 366");
+        }
+        LocalDate lastDay = endDate != null ? endDate : LocalDate.now();
+        DailyTotals totals = dailyTotalsIndex.get(userId);
+
+        List<SpendingSummaryResponse> windows = new ArrayList<>(points);
+        for (int i = points - 1; i >= 0; i--) {
+            LocalDate windowEnd = lastDay.minusDays(i);
+            windows.add(totals.sum(windowEnd.minusDays(windowDays - 1L), windowEnd, false));
+        }
+        return windows;
+    }
+
     public int importExpenses(String userId, ImportExpensesRequest request) {
         if (request.getExpenses() == null || request.getExpenses().isEmpty()) {
             throw new ApiException(400, "Expenses array is required");
         }
 
-        List<Expense> expensesToSave = new ArrayList<>();
-
-        for (ExpenseRequest expenseRequest : request.getExpenses()) {
-            if (expenseRequest.getName() == null || expenseRequest.getAmount() == null ||
-                expenseRequest.getCategory() == null || expenseRequest.getPaymentType() == null) {
-                throw new ApiException(400, "Each expense must have name, amount, category, and payment type");
-            }
+        ExpenseImportEvent event = new ExpenseImportEvent();
+        event.begin();
+        long started = System.nanoTime();
+        List<Expense> expensesToSave = expenseMapper.toImportedExpenses(userId, request.getExpenses());
 
-            if (expenseRequest.getAmount() <= 0) {
-                throw new ApiException(400, "Amount must be greater than 0");
-            }
+        long writeGeneration = dailyTotalsIndex.beforeWrite(userId);
+        List<Expense> savedExpenses = expenseStore.saveAll(expensesToSave);
+        userService.incrementExpenseCount(userId, savedExpenses.size());
+        analyticsCache.onSaved(savedExpenses);
+        dailyTotalsIndex.onCreated(savedExpenses, writeGeneration);
+        queryCoalescer.onWrite(userId);
+        invalidationBus.publish(userId);
+
+        recordImport(savedExpenses.size(), System.nanoTime() - started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.userId = userId;
+            event.rows = savedExpenses.size();
+            event.commit();
+        }
+        return savedExpenses.size();
+    }
 
-            Expense expense = Expense.builder()
-                    .name(expenseRequest.getName().trim())
-                    .amount(expenseRequest.getAmount())
-                    .expenseDate(expenseRequest.getExpenseDate() != null ? expenseRequest.getExpenseDate() : LocalDateTime.now())
-                    .category(expenseRequest.getCategory().trim())
-                    .paymentType(expenseRequest.getPaymentType().trim())
-                    .comment(expenseRequest.getComment() != null ? expenseRequest.getComment().trim() : "")
-                    .owner(userId)
-                    .build();
-
-            expensesToSave.add(expense);
+    private void recordImport(int rows, long elapsedNanos) {
+        DistributionSummary.builder("app.import.batch.size")
+                .description("Expenses per import request")
+                .baseUnit("rows")
+                .register(meterRegistry)
+                .record(rows);
+        Timer.builder("app.import.duration")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos > 0) {
+            DistributionSummary.builder("app.import.rows.per.second")
+                    .description("Throughput of each import request")
+                    .register(meterRegistry)
+                    .record(rows * 1e9 / elapsedNanos);
         }
+    }
 
-        List<Expense> savedExpenses = expenseRepository.saveAll(expensesToSave);
-        userService.incrementExpenseCount(userId, savedExpenses.size());
+    public List<ExpenseResponse> getDashboardExpenses(String userId, String timeFilter) {
+        return queryCoalescer.execute("dashboard", userId, timeFilter,
+                () -> loadDashboardExpenses(userId, timeFilter));
+    }
 
-        return savedExpenses.size();
+    /**
+     * Whether list and dashboard pages can be written straight from raw BSON
+     * by {@link #streamExpenses} and {@link #streamDashboardExpenses}.
+     */
+    public boolean canStreamRawJson() {
+        return rawJsonEnabled && expenseStore.supportsRawDocuments();
     }
 
-    public List<ExpenseResponse> getDashboardExpenses(String userId, String timeFilter) {
-        List<Expense> expenses;
+    /**
+     * Same page as {@link #getAllExpenses}, handed out as raw stored documents.
+     * Not coalesced: each caller streams from its own cursor.
+     */
+    public void streamExpenses(String userId, Integer page, Integer limit,
+                               String category, LocalDateTime startDate, LocalDateTime endDate,
+                               String sortBy, String sortType, Consumer<RawBsonDocument> consumer) {
+        log.info("Streaming expenses for user: {}", userId);
+        expenseStore.streamPage(userId, category, startDate, endDate, pageable(page, limit, sortBy, sortType), consumer);
+    }
 
-        if (timeFilter == null || timeFilter.equals("all")) {
-            expenses = expenseRepository.findByOwner(userId);
-        } else {
-            LocalDateTime filterDate;
-            LocalDateTime now = LocalDateTime.now();
-
-            switch (timeFilter) {
-                case "week":
-                    filterDate = now.minusDays(7);
-                    break;
-                case "month":
-                    filterDate = now.minusDays(30);
-                    break;
-                case "year":
-                    filterDate = now.minusDays(365);
-                    break;
-                default:
-                    expenses = expenseRepository.findByOwner(userId);
-                    return expenses.stream().map(this::mapToExpenseResponse).collect(Collectors.toList());
-            }
+    public void streamDashboardExpenses(String userId, String timeFilter, Consumer<RawBsonDocument> consumer) {
+        expenseStore.streamAfter(userId, dashboardFilterDate(timeFilter), consumer);
+    }
+
+    private List<ExpenseResponse> loadDashboardExpenses(String userId, String timeFilter) {
+        LocalDateTime filterDate = dashboardFilterDate(timeFilter);
 
-            expenses = expenseRepository.findByOwnerAndExpenseDateAfter(userId, filterDate);
+        Optional<List<ExpenseResponse>> direct = expenseStore.findResponsesAfter(userId, filterDate);
+        if (direct.isPresent()) {
+            return direct.get();
         }
 
-        return expenses.stream()
-                .map(this::mapToExpenseResponse)
-                .collect(Collectors.toList());
+        List<Expense> expenses = filterDate == null
+                ? expenseStore.findByOwner(userId)
+                : expenseStore.findByOwnerAndExpenseDateAfter(userId, filterDate);
+
+        return expenseMapper.toResponses(expenses);
     }
 
-    private ExpenseResponse mapToExpenseResponse(Expense expense) {
-        return ExpenseResponse.builder()
-                ._id(expense.getId())
-                .name(expense.getName())
-                .amount(expense.getAmount())
-                .expense_date(expense.getExpenseDate().format(DATE_FORMATTER))
-                .expense_category(expense.getCategory())
-                .payment(expense.getPaymentType())
-                .comment(expense.getComment())
-                .owner(expense.getOwner())
-                .createdAt(expense.getCreatedAt())
-                .updatedAt(expense.getUpdatedAt())
-                .build();
+    private static Pageable pageable(Integer page, Integer limit, String sortBy, String sortType) {
+        String property = sortBy != null ? sortBy : "expenseDate";
+        if (property.equals("amount")) {
+            // The API name; amounts are stored in minor units
+            property = "amountMinor";
+        }
+        Sort sort = Sort.by(sortType.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+        return PageRequest.of(page - 1, limit, sort);
+    }
+
+    /**
+     * Start of the dashboard window, or null for "all" and unknown filters.
+     */
+    private static LocalDateTime dashboardFilterDate(String timeFilter) {
+        if (timeFilter == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (timeFilter) {
+            case "week":
+                return now.minusDays(7);
+            case "month":
+                return now.minusDays(30);
+            case "year":
+                return now.minusDays(365);
+            default:
+                return null;
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.exception.WriteInProgressException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Group commit for single-expense creates. Concurrent callers hand their
+ * expense to one writer thread, which gathers whatever arrives within
+ * app.write-batching.max-wait-ms (up to the current batch limit) and commits
+ * it as one insertMany plus one bulk $inc of the owners' expense counts.
+ *
+ * The batch limit adapts to commit latency: it doubles while batches fill up
+ * and commit within the target, and halves when a commit is slower. If a batch
+ * fails, its expenses are retried one by one so each caller gets its own
+ * result or error.
+ *
+ * Each expense gets its id before it is queued. The retry skips the ones
+ * that landed before the batch failed, and a caller that times out while its
+ * batch is committing is answered with 202 and that id rather than an error,
+ * so it can check for the expense instead of creating it again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseWriteBatcher {
+
+    private final ExpenseStore expenseStore;
+    private final UserService userService;
+
+    @Value("${app.write-batching.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.write-batching.max-batch-size:256}")
+    private int maxBatchSize;
+
+    @Value("${app.write-batching.max-wait-ms:2}")
+    private long maxWaitMillis;
+
+    @Value("${app.write-batching.target-latency-ms:20}")
+    private long targetLatencyMillis;
+
+    @Value("${app.write-batching.save-timeout-ms:10000}")
+    private long saveTimeoutMillis;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private volatile int batchLimit;
+    private Thread writer;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        batchLimit = Math.max(1, maxBatchSize / 4);
+        running = true;
+        writer = new Thread(this::drain, "expense-write-batcher");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public int getBatchLimit() {
+        return batchLimit;
+    }
+
+    /**
+     * Saves the expense in the next batch and increments its owner's expense
+     * count, blocking until that batch has committed or
+     * app.write-batching.save-timeout-ms has passed. If the batch is still
+     * committing then, onLateCommit runs on the writer thread once it has.
+     */
+    public Expense save(Expense expense, Consumer<Expense> onLateCommit) {
+        if (!running) {
+            throw new ApiException(503, "Expense writes are unavailable");
+        }
+        expense.setId(new ObjectId().toHexString());
+        PendingWrite write = new PendingWrite(expense, new CompletableFuture<>());
+        queue.add(write);
+        try {
+            return write.result().get(saveTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(write)) {
+                throw new ApiException(503, "Expense writes are unavailable");
+            }
+            // Already taken into a batch, which may yet commit
+            write.result().thenAccept(onLateCommit);
+            throw new WriteInProgressException(expense.getId(), "Expense accepted but not yet confirmed; check its id before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Interrupted waiting for the expense write");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Expense write failed", e.getCause());
+        }
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingWrite first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                int limit = batchLimit;
+                while (batch.size() < limit) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch, limit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new ApiException(503, "Expense writes are unavailable"));
+                break;
+            } catch (Throwable e) {
+                // Keep the writer alive; only this batch's callers see the failure
+                log.error("Batch of {} expense writes failed", batch.size(), e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Fail whatever is still waiting so no caller blocks forever
+        running = false;
+        List<PendingWrite> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left, new ApiException(503, "Expense writes are unavailable"));
+    }
+
+    /** Completes every write not already completed with the error */
+    private static void fail(List<PendingWrite> writes, Throwable error) {
+        for (PendingWrite write : writes) {
+            write.result().completeExceptionally(error);
+        }
+    }
+
+    private void commit(List<PendingWrite> batch, int limit) {
+        long started = System.nanoTime();
+        List<Expense> expenses = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            expenses.add(write.expense());
+        }
+        try {
+            expenseStore.saveAll(expenses);
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} expense inserts failed; retrying individually", batch.size(), e);
+            commitIndividually(batch);
+            return;
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Expense expense : expenses) {
+            counts.merge(expense.getOwner(), 1, Integer::sum);
+        }
+        try {
+            userService.incrementExpenseCounts(counts);
+        } catch (RuntimeException e) {
+            // The expenses are stored; the reconciliation job repairs the counts
+            log.error("Failed to increment expense counts for {} users", counts.size(), e);
+        }
+        for (PendingWrite write : batch) {
+            write.result().complete(write.expense());
+        }
+        adapt(batch.size(), limit, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void commitIndividually(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            Expense expense = write.expense();
+            try {
+                // Part of the failed insertMany may have landed
+                if (expenseStore.findByIdAndOwner(expense.getId(), expense.getOwner()).isPresent()) {
+                    userService.incrementExpenseCount(expense.getOwner());
+                    write.result().complete(expense);
+                    continue;
+                }
+                Expense saved = expenseStore.save(expense);
+                userService.incrementExpenseCount(expense.getOwner());
+                write.result().complete(saved);
+            } catch (RuntimeException e) {
+                write.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void adapt(int size, int limit, long elapsedMillis) {
+        if (elapsedMillis > targetLatencyMillis) {
+            batchLimit = Math.max(1, limit / 2);
+        } else if (size >= limit) {
+            batchLimit = Math.min(maxBatchSize, limit * 2);
+        }
+    }
+
+    private record PendingWrite(Expense expense, CompletableFuture<Expense> result) {
+    }
+}
@@ -0,0 +1,287 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.SingleFlight;
+import com.expensetracker.exception.ApiException;
+import com.expensetracker.model.IdempotencyRecord;
+import com.expensetracker.repository.IdempotencyStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes POSTs carrying an Idempotency-Key safe to retry: the first request
+ * with a key runs and its response is stored; later ones with the same key
+ * get that response back without running again.
+ *
+ * Concurrent duplicates on one instance share a single execution. Across
+ * instances the first to insert the in-progress record runs and the others
+ * wait for it to complete. Completed responses live in the
+ * {@link IdempotencyStore} until they expire, with the most recent also
+ * kept in an in-memory LRU so hot retries do not reach Mongo; both are
+ * ignored once older than the TTL. A request that fails releases its key, so
+ * the client can retry it.
+ *
+ * The in-progress lock is renewed every third of lock-seconds while the
+ * action runs, so a long import is not taken over by another instance and run
+ * twice. If the completed response cannot be stored, the caller still gets
+ * it, and the failure is logged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 50;
+    private static final int SAVE_ATTEMPTS = 3;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lru-size:10000}")
+    private int lruSize;
+
+    @Value("${app.idempotency.lock-seconds:30}")
+    private long lockSeconds;
+
+    private final SingleFlight<String, Outcome> inFlight = new SingleFlight<>();
+    private Map<String, IdempotencyRecord> recent;
+    private ScheduledExecutorService leaseRenewer;
+
+    @PostConstruct
+    public void init() {
+        recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > lruSize;
+            }
+        };
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "idempotency-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        leaseRenewer.shutdownNow();
+    }
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Runs the action once per user and key. A null key runs it unconditionally.
+     *
+     * @param operation names the endpoint, so a key reused on another endpoint is rejected
+     * @param request   the request body, compared against the one the key was first used with
+     */
+    public <T> Result<T> execute(String userId, String key, String operation, Object request,
+                                 Class<T> resultType, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(400, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = userId + ":" + key;
+        String fingerprint = fingerprint(operation, request);
+        Object caller = new Object();
+        Outcome outcome = inFlight.execute(id, () -> lookupOrRun(id, fingerprint, caller, action));
+
+        if (!outcome.record().getFingerprint().equals(fingerprint)) {
+            throw new ApiException(422, "Idempotency-Key was already used with a different request");
+        }
+        if (outcome.executedBy() == caller) {
+            return new Result<>(resultType.cast(outcome.value()), false);
+        }
+        return new Result<>(read(outcome.record().getBody(), resultType), true);
+    }
+
+    private Outcome lookupOrRun(String id, String fingerprint, Object caller, Supplier<?> action) {
+        IdempotencyRecord completed = findCompleted(id);
+        if (completed != null) {
+            return new Outcome(completed, null, null);
+        }
+
+        if (!acquire(id, fingerprint)) {
+            return new Outcome(awaitCompletion(id), null, null);
+        }
+
+        Object value;
+        long renewMillis = Math.max(1, lockSeconds * 1000 / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleWithFixedDelay(() -> renew(id),
+                renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        try {
+            value = action.get();
+        } catch (RuntimeException | Error e) {
+            renewal.cancel(false);
+            idempotencyStore.release(id);
+            throw e;
+        }
+        renewal.cancel(false);
+
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(id)
+                .fingerprint(fingerprint)
+                .status(IdempotencyRecord.COMPLETED)
+                .body(write(value))
+                .createdAt(LocalDateTime.now())
+                .build();
+        save(record);
+        remember(record);
+        return new Outcome(record, value, caller);
+    }
+
+    private void renew(String id) {
+        try {
+            if (!idempotencyStore.renew(id, LocalDateTime.now().plusSeconds(lockSeconds))) {
+                log.warn("Idempotency key {} is no longer held while its request runs", id);
+            }
+        } catch (RuntimeException e) {
+            // The next renewal tries again; the lock still has two thirds of its time
+            log.warn("Could not renew the lock on idempotency key {}", id, e);
+        }
+    }
+
+    /**
+     * The action has run, so a failure here must not turn into an error the
+     * client retries: the response is returned either way.
+     */
+    private void save(IdempotencyRecord record) {
+        for (int attempt = 1; attempt <= SAVE_ATTEMPTS; attempt++) {
+            try {
+                idempotencyStore.save(record);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == SAVE_ATTEMPTS) {
+                    log.error("Could not store the response for idempotency key {}; a retry after its lock"
+                            + " lapses will run again", record.getId(), e);
+                    return;
+                }
+                try {
+                    Thread.sleep(POLL_MILLIS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    log.error("Interrupted storing the response for idempotency key {}", record.getId(), e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private IdempotencyRecord findCompleted(String id) {
+        synchronized (recent) {
+            IdempotencyRecord cached = recent.get(id);
+            if (cached != null && !expired(cached)) {
+                return cached;
+            }
+            recent.remove(id);
+        }
+        IdempotencyRecord stored = idempotencyStore.findById(id);
+        // The TTL monitor only runs once a minute, so an expired record may still be there
+        if (stored != null && IdempotencyRecord.COMPLETED.equals(stored.getStatus()) && !expired(stored)) {
+            remember(stored);
+            return stored;
+        }
+        return null;
+    }
+
+    /**
+     * Takes the key for this instance. Returns false when another instance holds it.
+     */
+    private boolean acquire(String id, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        return idempotencyStore.acquire(id, fingerprint, now, now.plusSeconds(lockSeconds));
+    }
+
+    private IdempotencyRecord awaitCompletion(String id) {
+        long deadline = System.currentTimeMillis() + lockSeconds * 1000;
+        while (System.currentTimeMillis() < deadline) {
+            IdempotencyRecord stored = idempotencyStore.findById(id);
+            if (stored == null) {
+                // The other request failed and released the key
+                throw new ApiException(409, "A request with this Idempotency-Key failed; retry it");
+            }
+            if (IdempotencyRecord.COMPLETED.equals(stored.getStatus())) {
+                remember(stored);
+                return stored;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new ApiException(409, "A request with this Idempotency-Key is still in progress");
+    }
+
+    private boolean expired(IdempotencyRecord record) {
+        return record.getCreatedAt() != null && record.getCreatedAt().isBefore(LocalDateTime.now().minusHours(ttlHours));
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getId(), record);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not replay idempotent response", e);
+        }
+    }
+
+    /** executedBy identifies the caller whose action produced value; null for a stored response */
+    private record Outcome(IdempotencyRecord record, Object value, Object executedBy) {
+    }
+}
@@ -1,9 +1,11 @@
 package com.expensetracker.service;
 
+import com.expensetracker.cache.CacheInvalidationBus;
 import com.expensetracker.dto.*;
 import com.expensetracker.exception.ApiException;
 import com.expensetracker.model.User;
-import com.expensetracker.repository.UserRepository;
+import com.expensetracker.purge.AccountPurgeQueue;
+import com.expensetracker.repository.UserStore;
 import com.expensetracker.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,15 +14,19 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
-    private final UserRepository userRepository;
+    private final UserStore userStore;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final CacheInvalidationBus invalidationBus;
+    private final AccountPurgeQueue purgeQueue;
 
     public AuthResponse register(RegisterRequest request) {
         log.info("Registration request received for username: {}", request.getUsername());
@@ -34,7 +40,7 @@ public class UserService {
         }
 
         // Check if user already exists
-        if (userRepository.existsByUsernameOrEmail(
+        if (userStore.existsByUsernameOrEmail(
                 request.getUsername().toLowerCase(), request.getEmail().toLowerCase())) {
             throw new ApiException(409, "User with email or username already exists");
         }
@@ -51,7 +57,7 @@ public class UserService {
                 .expenseLogged(0)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser = userStore.save(user);
 
         // Generate tokens
         String accessToken = jwtService.generateAccessToken(savedUser);
@@ -59,7 +65,7 @@ public class UserService {
 
         // Save refresh token
         savedUser.setRefreshToken(refreshToken);
-        userRepository.save(savedUser);
+        userStore.save(savedUser);
 
         return AuthResponse.builder()
                 .user(mapToUserResponse(savedUser))
@@ -76,7 +82,7 @@ public class UserService {
         }
 
         // Find user
-        User user = userRepository.findByUsernameOrEmail(
+        User user = userStore.findByUsernameOrEmail(
                 request.getUsername() != null ? request.getUsername().toLowerCase() : "",
                 request.getEmail() != null ? request.getEmail().toLowerCase() : ""
         ).orElseThrow(() -> new ApiException(404, "User does not exist"));
@@ -93,7 +99,8 @@ public class UserService {
         // Update user with refresh token and last login
         user.setRefreshToken(refreshToken);
         user.setLastLoginDate(LocalDateTime.now());
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(user.getId());
 
         return AuthResponse.builder()
                 .user(mapToUserResponse(user))
@@ -103,10 +110,11 @@ public class UserService {
     }
 
     public void logout(String userId) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
         user.setRefreshToken(null);
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(userId);
     }
 
     public AuthResponse refreshToken(String refreshToken) {
@@ -119,7 +127,7 @@ public class UserService {
             throw new ApiException(401, "Invalid refresh token");
         }
 
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(401, "Invalid refresh token"));
 
         if (!refreshToken.equals(user.getRefreshToken())) {
@@ -131,7 +139,8 @@ public class UserService {
         String newRefreshToken = jwtService.generateRefreshToken(user);
 
         user.setRefreshToken(newRefreshToken);
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(user.getId());
 
         return AuthResponse.builder()
                 .user(mapToUserResponse(user))
@@ -141,16 +150,19 @@ public class UserService {
     }
 
     public UserResponse getCurrentUser(String userId) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
         return mapToUserResponse(user);
     }
 
     public void deleteAccount(String userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userStore.existsById(userId)) {
             throw new ApiException(404, "User not found");
         }
-        userRepository.deleteById(userId);
+        userStore.deleteById(userId);
+        // Expenses are removed in the background; if this enqueue is lost the orphan sweep finds them
+        purgeQueue.enqueue(userId, "account-deleted");
+        invalidationBus.publish(userId);
     }
 
     public UserResponse updateCategories(String userId, UpdateCategoriesRequest request) {
@@ -158,23 +170,24 @@ public class UserService {
             throw new ApiException(400, "Categories must be an array");
         }
 
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
 
         user.setCategories(request.getCategories());
-        User savedUser = userRepository.save(user);
+        User savedUser = userStore.save(user);
+        invalidationBus.publish(userId);
 
         return mapToUserResponse(savedUser);
     }
 
     public UserResponse updateProfile(String userId, UpdateProfileRequest request) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
 
         if (request.getUsername() != null && !request.getUsername().isEmpty()) {
             // Check if username is taken by another user
             String newUsername = request.getUsername().toLowerCase();
-            userRepository.findByUsername(newUsername).ifPresent(existingUser -> {
+            userStore.findByUsername(newUsername).ifPresent(existingUser -> {
                 if (!existingUser.getId().equals(userId)) {
                     throw new ApiException(409, "Username is already taken");
                 }
@@ -186,29 +199,50 @@ public class UserService {
             user.setName(request.getName());
         }
 
-        User savedUser = userRepository.save(user);
+        User savedUser = userStore.save(user);
+        invalidationBus.publish(userId);
         return mapToUserResponse(savedUser);
     }
 
     public void incrementExpenseCount(String userId) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
         user.setExpenseLogged(user.getExpenseLogged() + 1);
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(userId);
     }
 
     public void decrementExpenseCount(String userId) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
         user.setExpenseLogged(Math.max(0, user.getExpenseLogged() - 1));
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(userId);
     }
 
     public void incrementExpenseCount(String userId, int count) {
-        User user = userRepository.findById(userId)
+        User user = findUser(userId)
                 .orElseThrow(() -> new ApiException(404, "User not found"));
         user.setExpenseLogged(user.getExpenseLogged() + count);
-        userRepository.save(user);
+        userStore.save(user);
+        invalidationBus.publish(userId);
+    }
+
+    /**
+     * Adds to several users' expense counts atomically, in one bulk update on Mongo.
+     */
+    public void incrementExpenseCounts(Map<String, Integer> countsByUser) {
+        if (countsByUser.isEmpty()) {
+            return;
+        }
+        userStore.incrementExpenseCounts(countsByUser);
+        for (String userId : countsByUser.keySet()) {
+            invalidationBus.publish(userId);
+        }
+    }
+
+    private Optional<User> findUser(String userId) {
+        return userStore.findById(userId);
     }
 
     private UserResponse mapToUserResponse(User user) {
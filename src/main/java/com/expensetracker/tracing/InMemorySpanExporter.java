@@ -0,0 +1,67 @@
+package com.expensetracker.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent app.tracing.memory.max-spans spans in memory, for
+ * tests and for looking at traces locally without a collector. They are
+ * served at /api/v1/admin/traces.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "memory")
+public class InMemorySpanExporter implements SpanExporter {
+
+    @Value("${app.tracing.memory.max-spans:10000}")
+    private int maxSpans;
+
+    private final Deque<RecordedSpan> spans = new ArrayDeque<>();
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+        for (SpanData span : batch) {
+            spans.addLast(RecordedSpan.of(span));
+            if (spans.size() > maxSpans) {
+                spans.removeFirst();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * The kept spans, oldest first, optionally only those of one trace.
+     */
+    public synchronized List<RecordedSpan> getSpans(String traceId) {
+        List<RecordedSpan> result = new ArrayList<>();
+        for (RecordedSpan span : spans) {
+            if (traceId == null || traceId.equals(span.traceId())) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void reset() {
+        spans.clear();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
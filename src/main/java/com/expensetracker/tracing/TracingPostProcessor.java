@@ -0,0 +1,80 @@
+package com.expensetracker.tracing;
+
+import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.UserService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Observes every public method of the REST controllers (app.controller) and
+ * of {@link ExpenseService} and {@link UserService} (app.service), so a
+ * request's trace shows the JWT check, the handler, the service calls and
+ * their Mongo commands as nested spans. The gap between the handler span and
+ * the end of the request is response serialization.
+ *
+ * Each observation also feeds a timer tagged with class and method.
+ */
+@Component
+public class TracingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public TracingPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String layer;
+        if (bean instanceof ExpenseService || bean instanceof UserService) {
+            layer = "service";
+        } else if (AnnotatedElementUtils.hasAnnotation(ClassUtils.getUserClass(bean), RestController.class)) {
+            layer = "controller";
+        } else {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new ObservingInterceptor("app." + layer,
+                ClassUtils.getUserClass(bean).getSimpleName(), observationRegistry));
+        return proxyFactory.getProxy();
+    }
+
+    private static final class ObservingInterceptor implements MethodInterceptor {
+
+        private final String name;
+        private final String type;
+        private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+        ObservingInterceptor(String name, String type, ObjectProvider<ObservationRegistry> observationRegistry) {
+            this.name = name;
+            this.type = type;
+            this.observationRegistry = observationRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class || !Modifier.isPublic(method.getModifiers())) {
+                return invocation.proceed();
+            }
+            return Observation.createNotStarted(name, observationRegistry.getObject())
+                    .contextualName(type + "." + method.getName())
+                    .lowCardinalityKeyValue("class", type)
+                    .lowCardinalityKeyValue("method", method.getName())
+                    .observeChecked(invocation::proceed);
+        }
+    }
+}
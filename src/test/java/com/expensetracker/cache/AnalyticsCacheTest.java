@@ -0,0 +1,94 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.ExpenseStatsResponse;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsCacheTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    private final ExpenseStore expenseStore = mock(ExpenseStore.class);
+    private AnalyticsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AnalyticsCache(expenseStore, mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+    }
+
+    @Test
+    void readAfterAWriteDoesNotJoinALoadThatStartedBeforeIt() throws Exception {
+        Expense first = expense("a", 1000);
+        Expense second = expense("b", 250);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseStore.findAnalyticsFields(USER))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return List.of(first);
+                })
+                .thenReturn(List.of(first, second));
+
+        CompletableFuture<ExpenseStatsResponse> before = CompletableFuture.supplyAsync(() -> stats());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.onSaved(second);
+
+        // Joining the first load would wait on it and time out
+        ExpenseStatsResponse after = CompletableFuture.supplyAsync(() -> stats()).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertEquals(1250, after.getOverallStats().getTotalAmount().getMinor());
+        assertEquals(1000, before.get(5, TimeUnit.SECONDS).getOverallStats().getTotalAmount().getMinor());
+        verify(expenseStore, times(2)).findAnalyticsFields(USER);
+    }
+
+    @Test
+    void patchesCachedColumnsOnWrites() {
+        Expense first = expense("a", 1000);
+        when(expenseStore.findAnalyticsFields(USER)).thenReturn(List.of(first));
+        assertEquals(1000, stats().getOverallStats().getTotalAmount().getMinor());
+
+        cache.onSaved(expense("b", 250));
+        cache.onSaved(expense("a", 400));
+        assertEquals(650, stats().getOverallStats().getTotalAmount().getMinor());
+
+        cache.onDeleted(USER, "b");
+        assertEquals(400, stats().getOverallStats().getTotalAmount().getMinor());
+        verify(expenseStore, times(1)).findAnalyticsFields(USER);
+    }
+
+    private ExpenseStatsResponse stats() {
+        return cache.stats(USER, null, null).orElseThrow();
+    }
+
+    private static Expense expense(String id, long amountMinor) {
+        return Expense.builder()
+                .id(id)
+                .owner(USER)
+                .category("Food")
+                .paymentType("Card")
+                .amountMinor(amountMinor)
+                .expenseDate(DATE)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DailyTotalsIndexTest {
+
+    private static final String USER = "user-1";
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    private final ExpenseStore expenseStore = mock(ExpenseStore.class);
+    private final List<ExpenseStore.DailyCategoryTotal> stored = new ArrayList<>();
+    private DailyTotalsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DailyTotalsIndex(expenseStore, mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxBytes", 1L << 20);
+        doAnswer(invocation -> new ArrayList<>(stored)).when(expenseStore).dailyCategoryTotals(anyString());
+        stored.add(new ExpenseStore.DailyCategoryTotal(DAY, "Food", 1000, 1));
+    }
+
+    @Test
+    void patchesAnEntryLoadedBeforeTheWrite() {
+        assertEquals(1000, total());
+
+        long generation = index.beforeWrite(USER);
+        Expense expense = save(250);
+        index.onCreated(expense, generation);
+
+        assertEquals(1250, total());
+        assertEquals(2, index.get(USER).sum(DAY, DAY, false).getCount());
+    }
+
+    @Test
+    void doesNotCountAWriteTwiceWhenTheLoadRanAfterItsStoreWrite() {
+        // The load starts after the write began and its aggregation sees the saved expense
+        long generation = index.beforeWrite(USER);
+        Expense expense = save(250);
+        assertEquals(1250, total());
+
+        index.onCreated(expense, generation);
+
+        assertEquals(1250, total());
+    }
+
+    @Test
+    void doesNotInstallALoadThatOverlappedAWrite() {
+        Expense[] written = new Expense[1];
+        long[] generation = new long[1];
+        doAnswer(invocation -> {
+            // The write begins and lands while the aggregation runs, which still sees it
+            generation[0] = index.beforeWrite(USER);
+            written[0] = save(250);
+            return new ArrayList<>(stored);
+        }).when(expenseStore).dailyCategoryTotals(anyString());
+        assertEquals(1250, total());
+        doAnswer(invocation -> new ArrayList<>(stored)).when(expenseStore).dailyCategoryTotals(anyString());
+
+        index.onCreated(written[0], generation[0]);
+
+        assertEquals(1250, total());
+    }
+
+    @Test
+    void doesNotInstallALoadThatMissedAWriteFinishingDuringIt() {
+        Expense[] written = new Expense[1];
+        long[] generation = new long[1];
+        doAnswer(invocation -> {
+            // The aggregation runs before the save, then the write completes before the load installs
+            List<ExpenseStore.DailyCategoryTotal> snapshot = new ArrayList<>(stored);
+            generation[0] = index.beforeWrite(USER);
+            written[0] = save(250);
+            index.onCreated(written[0], generation[0]);
+            return snapshot;
+        }).when(expenseStore).dailyCategoryTotals(anyString());
+        assertEquals(1000, total());
+        doAnswer(invocation -> new ArrayList<>(stored)).when(expenseStore).dailyCategoryTotals(anyString());
+
+        assertEquals(1250, total());
+    }
+
+    @Test
+    void evictsOnDeleteWhenTheEntryMayAlreadyExcludeIt() {
+        Expense expense = save(250);
+        long generation = index.beforeWrite(USER);
+        stored.remove(stored.size() - 1);
+        assertEquals(1000, total());
+
+        index.onDeleted(expense, generation);
+
+        assertEquals(1000, total());
+    }
+
+    private long total() {
+        return index.get(USER).sum(DAY, DAY, false).getTotalAmount().getMinor();
+    }
+
+    private Expense save(long amountMinor) {
+        stored.add(new ExpenseStore.DailyCategoryTotal(DAY, "Food", amountMinor, 1));
+        return Expense.builder()
+                .owner(USER)
+                .category("Food")
+                .amountMinor(amountMinor)
+                .expenseDate(DAY.atTime(12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.SpendingSummaryResponse;
+import com.expensetracker.repository.ExpenseStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DailyTotalsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final String[] CATEGORIES = {"Food", "Rent", "Travel"};
+
+    @Test
+    void rangeSumsMatchABruteForceSum() {
+        Random random = new Random(42);
+        List<ExpenseStore.DailyCategoryTotal> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(new ExpenseStore.DailyCategoryTotal(START.plusDays(random.nextInt(400)),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(10_000), 1 + random.nextInt(3)));
+        }
+        DailyTotals totals = DailyTotals.of(rows);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = START.plusDays(random.nextInt(420) - 10);
+            LocalDate to = from.plusDays(random.nextInt(120));
+            assertMatches(rows, totals.sum(from, to, true), from, to);
+        }
+    }
+
+    @Test
+    void addsMatchABruteForceSumAcrossSparseDays() {
+        Random random = new Random(7);
+        List<ExpenseStore.DailyCategoryTotal> rows = new ArrayList<>();
+        DailyTotals totals = DailyTotals.empty();
+        for (int i = 0; i < 500; i++) {
+            // Days decades apart and in random order, so new slots land before, between and after existing ones
+            LocalDate day = START.plusDays(random.nextInt(40_000) - 20_000);
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long amount = random.nextInt(5_000) - 1_000;
+            rows.add(new ExpenseStore.DailyCategoryTotal(day, category, amount, 1));
+            totals.add(day, category, amount, 1);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = START.plusDays(random.nextInt(42_000) - 21_000);
+            LocalDate to = from.plusDays(random.nextInt(10_000));
+            assertMatches(rows, totals.sum(from, to, true), from, to);
+        }
+        LocalDate first = START.minusDays(30_000);
+        LocalDate last = START.plusDays(30_000);
+        assertMatches(rows, totals.sum(first, last, true), first, last);
+    }
+
+    @Test
+    void singleDayAndEmptyRanges() {
+        DailyTotals totals = DailyTotals.of(List.of(
+                new ExpenseStore.DailyCategoryTotal(START, "Food", 1200, 2),
+                new ExpenseStore.DailyCategoryTotal(START.plusDays(10), "Rent", 50_000, 1)));
+
+        SpendingSummaryResponse day = totals.sum(START, START, true);
+        assertEquals(1200, day.getTotalAmount().getMinor());
+        assertEquals(2, day.getCount());
+        assertEquals(1, day.getCategoryTotals().size());
+        assertEquals("Food", day.getCategoryTotals().get(0).get_id());
+
+        SpendingSummaryResponse between = totals.sum(START.plusDays(1), START.plusDays(9), false);
+        assertEquals(0, between.getTotalAmount().getMinor());
+        assertEquals(0, between.getCount());
+        assertNull(between.getCategoryTotals());
+    }
+
+    private static void assertMatches(List<ExpenseStore.DailyCategoryTotal> rows, SpendingSummaryResponse actual,
+                                      LocalDate from, LocalDate to) {
+        long total = 0;
+        long count = 0;
+        Map<String, Long> byCategory = new HashMap<>();
+        for (ExpenseStore.DailyCategoryTotal row : rows) {
+            if (!row.day().isBefore(from) && !row.day().isAfter(to)) {
+                total += row.totalMinor();
+                count += row.count();
+                byCategory.merge(row.category(), row.totalMinor(), Long::sum);
+            }
+        }
+        String range = from + ".." + to;
+        assertEquals(total, actual.getTotalAmount().getMinor(), range);
+        assertEquals(count, actual.getCount(), range);
+        assertEquals(byCategory.size(), actual.getCategoryTotals().size(), range);
+        for (SpendingSummaryResponse.CategoryTotal categoryTotal : actual.getCategoryTotals()) {
+            assertEquals(byCategory.get(categoryTotal.get_id()), categoryTotal.getTotalAmount().getMinor(), range);
+        }
+    }
+}
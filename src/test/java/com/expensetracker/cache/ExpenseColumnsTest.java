@@ -0,0 +1,144 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.dto.ExpenseStatsResponse;
+import com.expensetracker.model.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpenseColumnsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] CATEGORIES = {"Food", "Rent", "Travel", "Health"};
+
+    @Test
+    void patchesLeaveTheOriginalUnchanged() {
+        ExpenseColumns original = ExpenseColumns.of(List.of(
+                expense("a", 1000, START, "Food"),
+                expense("b", 2000, START.plusDays(1), "Rent")));
+
+        ExpenseColumns added = original.with(expense("c", 500, START.plusDays(2), "Travel"));
+        ExpenseColumns replaced = original.with(expense("a", 300, START.plusDays(5), "Food"));
+        ExpenseColumns removed = original.without("b");
+
+        assertEquals(2, original.size());
+        ExpenseStatsResponse stats = original.stats(null, null);
+        assertEquals(3000, stats.getOverallStats().getTotalAmount().getMinor());
+        assertEquals(2, stats.getCategoryStats().size());
+
+        assertEquals(3, added.size());
+        assertEquals(3500, added.stats(null, null).getOverallStats().getTotalAmount().getMinor());
+        assertEquals(2, replaced.size());
+        assertEquals(2300, replaced.stats(null, null).getOverallStats().getTotalAmount().getMinor());
+        // The replacement moved to its new date
+        assertEquals(300, replaced.stats(START.plusDays(3), null).getOverallStats().getTotalAmount().getMinor());
+        assertEquals(1, removed.size());
+        assertEquals(1000, removed.stats(null, null).getOverallStats().getTotalAmount().getMinor());
+    }
+
+    @Test
+    void removingAnUnknownIdReturnsTheSameSnapshot() {
+        ExpenseColumns columns = ExpenseColumns.of(List.of(expense("a", 1000, START, "Food")));
+
+        assertSame(columns, columns.without("missing"));
+        assertSame(columns, columns.without(null));
+    }
+
+    @Test
+    void emptyRangeHasNoOverallStats() {
+        ExpenseColumns columns = ExpenseColumns.of(List.of(expense("a", 1000, START, "Food")));
+
+        ExpenseStatsResponse stats = columns.stats(START.plusDays(1), START.plusDays(2));
+
+        assertNull(stats.getOverallStats().getTotalExpenses());
+        assertEquals(0, stats.getCategoryStats().size());
+    }
+
+    @Test
+    void patchedStatsMatchABruteForceScan() {
+        Random random = new Random(11);
+        Map<String, Expense> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Expense expense = randomExpense(random, "e" + i);
+            expected.put(expense.getId(), expense);
+        }
+        ExpenseColumns columns = ExpenseColumns.of(new ArrayList<>(expected.values()));
+
+        for (int i = 0; i < 300; i++) {
+            String id = "e" + random.nextInt(80);
+            if (random.nextInt(3) == 0) {
+                expected.remove(id);
+                columns = columns.without(id);
+            } else {
+                Expense expense = randomExpense(random, id);
+                expected.put(id, expense);
+                columns = columns.with(expense);
+            }
+            assertEquals(expected.size(), columns.size());
+
+            LocalDateTime from = random.nextBoolean() ? null : START.plusHours(random.nextInt(24 * 60));
+            LocalDateTime to = random.nextBoolean() ? null : START.plusHours(random.nextInt(24 * 60));
+            assertMatches(expected.values(), columns.stats(from, to), from, to);
+        }
+    }
+
+    private static void assertMatches(Iterable<Expense> expenses, ExpenseStatsResponse actual,
+                                      LocalDateTime from, LocalDateTime to) {
+        long total = 0;
+        long count = 0;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        Map<String, Long> byCategory = new HashMap<>();
+        for (Expense expense : expenses) {
+            LocalDateTime date = expense.getExpenseDate();
+            if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))) {
+                total += expense.getAmountMinor();
+                count++;
+                max = Math.max(max, expense.getAmountMinor());
+                min = Math.min(min, expense.getAmountMinor());
+                byCategory.merge(expense.getCategory(), expense.getAmountMinor(), Long::sum);
+            }
+        }
+
+        String range = from + ".." + to;
+        assertEquals(byCategory.size(), actual.getCategoryStats().size(), range);
+        for (ExpenseStatsResponse.CategoryStats categoryStats : actual.getCategoryStats()) {
+            assertEquals(byCategory.get(categoryStats.get_id()), categoryStats.getTotalAmount().getMinor(), range);
+        }
+        if (count == 0) {
+            assertNull(actual.getOverallStats().getTotalExpenses(), range);
+            return;
+        }
+        ExpenseStatsResponse.OverallStats overall = actual.getOverallStats();
+        assertEquals(count, overall.getTotalExpenses(), range);
+        assertEquals(total, overall.getTotalAmount().getMinor(), range);
+        assertEquals(max, overall.getMaxAmount().getMinor(), range);
+        assertEquals(min, overall.getMinAmount().getMinor(), range);
+    }
+
+    private static Expense randomExpense(Random random, String id) {
+        return expense(id, 1 + random.nextInt(100_000), START.plusHours(random.nextInt(24 * 60)),
+                CATEGORIES[random.nextInt(CATEGORIES.length)]);
+    }
+
+    private static Expense expense(String id, long amountMinor, LocalDateTime date, String category) {
+        return Expense.builder()
+                .id(id)
+                .owner("user-1")
+                .category(category)
+                .paymentType("Card")
+                .amountMinor(amountMinor)
+                .expenseDate(date)
+                .build();
+    }
+}
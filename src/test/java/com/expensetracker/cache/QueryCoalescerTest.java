@@ -0,0 +1,102 @@
+package com.expensetracker.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class QueryCoalescerTest {
+
+    private static final String USER = "user-1";
+
+    private QueryCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new QueryCoalescer(mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+    }
+
+    @Test
+    void readAfterAWriteStartsItsOwnFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> before = CompletableFuture.supplyAsync(() -> coalescer.execute("stats", USER, List.of(), () -> {
+            loading.countDown();
+            await(release);
+            return "before";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        coalescer.onWrite(USER);
+
+        // Joining the first flight would wait on it and time out
+        String after = CompletableFuture.supplyAsync(() -> coalescer.execute("stats", USER, List.of(), () -> "after"))
+                .get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertEquals("after", after);
+        assertEquals("before", before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, coalescer.getFlights().get("stats").getExecutions());
+    }
+
+    @Test
+    void invalidationFromAnotherInstanceCountsAsAWrite() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> before = CompletableFuture.supplyAsync(() -> coalescer.execute("list", USER, List.of(1), () -> {
+            loading.countDown();
+            await(release);
+            return "before";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        coalescer.onInvalidate(new InvalidationEvent(USER, 1, "other-instance", System.currentTimeMillis()));
+
+        String after = CompletableFuture.supplyAsync(() -> coalescer.execute("list", USER, List.of(1), () -> "after"))
+                .get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertEquals("after", after);
+        assertEquals("before", before.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readsWithoutAWriteBetweenThemShareAFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> coalescer.execute("stats", USER, List.of(), () -> {
+            loading.countDown();
+            await(release);
+            return "shared";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> coalescer.execute("stats", USER, List.of(), () -> "own"));
+
+        SingleFlight<Object, Object> flight = coalescer.getFlights().get("stats");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getShared() < 1) {
+            assertTrue(System.nanoTime() < deadline, "second read never joined the flight");
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertEquals("shared", first.get(5, TimeUnit.SECONDS));
+        assertEquals("shared", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flight.getExecutions());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
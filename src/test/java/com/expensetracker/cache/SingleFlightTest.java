@@ -0,0 +1,122 @@
+package com.expensetracker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+    @Test
+    void callersArrivingDuringALoadShareIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return 42;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> {
+            loads.incrementAndGet();
+            return 0;
+        }));
+        waitForShared(1);
+        release.countDown();
+
+        assertEquals(42, first.get(5, TimeUnit.SECONDS));
+        assertEquals(42, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getExecutions());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void sharesTheLoadersException() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> {
+            loading.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> flight.execute("key", () -> 0));
+        waitForShared(1);
+        release.countDown();
+
+        assertSame(failure, cause(first));
+        assertSame(failure, cause(second));
+    }
+
+    @Test
+    void keepsNothingOnceTheLoadFinishes() {
+        assertEquals(1, flight.execute("key", () -> 1));
+        assertEquals(2, flight.execute("key", () -> 2));
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(3, flight.execute("key", () -> 3));
+
+        assertEquals(4, flight.getExecutions());
+        assertEquals(0, flight.getShared());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void differentKeysDoNotShare() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> flight.execute("a", () -> {
+            loading.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // Would block on the first load if it joined it
+        assertEquals(2, CompletableFuture.supplyAsync(() -> flight.execute("b", () -> 2)).get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.getShared());
+    }
+
+    private void waitForShared(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getShared() < expected) {
+            assertTrue(System.nanoTime() < deadline, "caller never joined the flight");
+            Thread.sleep(1);
+        }
+    }
+
+    private static Throwable cause(CompletableFuture<Integer> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        return e.getCause();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
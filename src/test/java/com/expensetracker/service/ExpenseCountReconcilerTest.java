@@ -0,0 +1,119 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ReconciliationReport;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpenseCountReconcilerTest {
+
+    private static final ObjectId MATCHING = new ObjectId("65f000000000000000000001");
+    private static final ObjectId NO_EXPENSES = new ObjectId("65f000000000000000000002");
+    private static final ObjectId DRIFTED = new ObjectId("65f000000000000000000003");
+    private static final ObjectId WROTE_DURING_RUN = new ObjectId("65f000000000000000000004");
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final Map<String, Long> currentCounts = new HashMap<>();
+    private ExpenseCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new ExpenseCountReconciler(mongoTemplate);
+        ReflectionTestUtils.setField(reconciler, "batchSize", 1000);
+        ReflectionTestUtils.setField(reconciler, "expenseLayout", "document");
+
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(2);
+        when(bulk.execute()).thenReturn(result);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users")).thenReturn(bulk);
+        when(mongoTemplate.count(any(Query.class), eq("expenses")))
+                .thenAnswer(invocation -> currentCounts.getOrDefault(
+                        invocation.<Query>getArgument(0).getQueryObject().getString("owner"), 0L));
+    }
+
+    @Test
+    void mergesCountsWithUsersAndRepairsOnlyConfirmedDrift() {
+        // Snapshot counts by owner, sorted as the $group and $sort return them
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("expenses"), eq(Document.class)))
+                .thenReturn(Stream.of(
+                        count(null, 2),
+                        count("000000000000000000000000", 9),
+                        count(MATCHING.toHexString(), 5),
+                        count(DRIFTED.toHexString(), 1)));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(
+                        user(MATCHING, 5),
+                        user(NO_EXPENSES, 3),
+                        user(DRIFTED, 4),
+                        user(WROTE_DURING_RUN, 7)));
+        currentCounts.put(MATCHING.toHexString(), 5L);
+        currentCounts.put(DRIFTED.toHexString(), 2L);
+        currentCounts.put(WROTE_DURING_RUN.toHexString(), 7L);
+
+        ReconciliationReport report = reconciler.reconcile();
+
+        assertEquals(4, report.getUsersChecked());
+        assertEquals(2, report.getMismatched());
+        assertEquals(5, report.getTotalDrift());
+        assertEquals(3, report.getMaxDrift());
+        assertEquals(2, report.getRepaired());
+
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(filters.capture(), updates.capture());
+        assertRepair(filters.getAllValues().get(0), updates.getAllValues().get(0), NO_EXPENSES, 3, 0);
+        assertRepair(filters.getAllValues().get(1), updates.getAllValues().get(1), DRIFTED, 4, 2);
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    void flushesRepairsInBatches() {
+        ReflectionTestUtils.setField(reconciler, "batchSize", 1);
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("expenses"), eq(Document.class)))
+                .thenReturn(Stream.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(user(MATCHING, 1), user(NO_EXPENSES, 2), user(DRIFTED, 3)));
+
+        ReconciliationReport report = reconciler.reconcile();
+
+        assertEquals(3, report.getMismatched());
+        verify(bulk, times(3)).execute();
+    }
+
+    private static void assertRepair(Query filter, Update update, ObjectId userId, int stored, long actual) {
+        assertEquals(userId, filter.getQueryObject().get("_id"));
+        // Conditional on the value read, so a concurrent change makes it miss
+        assertEquals(stored, filter.getQueryObject().get("expenseLogged"));
+        assertEquals((int) actual, update.getUpdateObject().get("$set", Document.class).get("expenseLogged"));
+    }
+
+    private static Document count(String owner, long count) {
+        return new Document("_id", owner).append("count", count);
+    }
+
+    private static Document user(ObjectId id, int expenseLogged) {
+        return new Document("_id", id).append("expenseLogged", expenseLogged);
+    }
+}
@@ -0,0 +1,82 @@
+package com.expensetracker.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemorySpanExporterTest {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exporter, "maxSpans", 3);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void recordsFinishedSpansWithTheirParent() {
+        Span parent = tracer.spanBuilder("GET /api/v1/expenses").setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            Span child = tracer.spanBuilder("mongo find").setSpanKind(SpanKind.CLIENT)
+                    .setAttribute("db.collection", "expenses")
+                    .startSpan();
+            child.setStatus(StatusCode.ERROR);
+            child.end();
+        }
+        parent.end();
+
+        List<RecordedSpan> spans = exporter.getSpans(parent.getSpanContext().getTraceId());
+        assertEquals(2, spans.size());
+        RecordedSpan child = spans.get(0);
+        RecordedSpan root = spans.get(1);
+        assertEquals("mongo find", child.name());
+        assertEquals("CLIENT", child.kind());
+        assertEquals("ERROR", child.status());
+        assertEquals("expenses", child.attributes().get("db.collection"));
+        assertEquals(root.spanId(), child.parentSpanId());
+        assertNull(root.parentSpanId());
+        assertEquals("SERVER", root.kind());
+        assertTrue(root.durationMicros() >= 0);
+    }
+
+    @Test
+    void filtersByTraceAndKeepsOnlyTheNewestSpans() {
+        Span first = tracer.spanBuilder("first").startSpan();
+        first.end();
+        for (int i = 0; i < 3; i++) {
+            tracer.spanBuilder("later-" + i).startSpan().end();
+        }
+
+        assertEquals(0, exporter.getSpans(first.getSpanContext().getTraceId()).size());
+        List<RecordedSpan> kept = exporter.getSpans(null);
+        assertEquals(List.of("later-0", "later-1", "later-2"), kept.stream().map(RecordedSpan::name).toList());
+
+        exporter.reset();
+        assertEquals(0, exporter.getSpans(null).size());
+    }
+}